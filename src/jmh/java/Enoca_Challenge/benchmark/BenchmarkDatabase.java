@@ -0,0 +1,100 @@
+package Enoca_Challenge.benchmark;
+
+import Enoca_Challenge.EnocaChallengeApplication;
+import Enoca_Challenge.model.Cart;
+import Enoca_Challenge.model.CartItem;
+import Enoca_Challenge.model.Customer;
+import Enoca_Challenge.model.Money;
+import Enoca_Challenge.model.Product;
+import Enoca_Challenge.repository.CartRepository;
+import Enoca_Challenge.repository.CustomerRepository;
+import Enoca_Challenge.repository.ProductRepository;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application without a web server on its own in-memory H2 database and seeds it with customers
+ * whose carts hold {@code cartSize} products each.
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+
+    static final int CUSTOMER_COUNT = 64;
+    static final int PRODUCT_STOCK = 1_000_000_000;
+    static final Money PRODUCT_PRICE = Money.of("9.99");
+
+    // Shuts the database down after the connection pool is gone, which only produces a warning on every fork
+    private static final String DEVTOOLS_DATASOURCE_AUTO_CONFIGURATION =
+            "org.springframework.boot.devtools.autoconfigure.DevToolsDataSourceAutoConfiguration";
+
+    private final ConfigurableApplicationContext context;
+    private final List<Long> customerIds = new ArrayList<>();
+    private final List<Product> products = new ArrayList<>();
+
+    BenchmarkDatabase(String name, String... properties) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        this.context = new SpringApplicationBuilder(EnocaChallengeApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:" + name + ";LOCK_TIMEOUT=10000",
+                        "spring.autoconfigure.exclude=" + DEVTOOLS_DATASOURCE_AUTO_CONFIGURATION,
+                        "logging.level.root=WARN",
+                        // Conflicts are expected when carts are shared, they are counted by the metrics instead
+                        "logging.level.org.hibernate.orm.jdbc.batch=OFF")
+                .properties(properties)
+                .run();
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    List<Long> customerIds() {
+        return customerIds;
+    }
+
+    List<Product> products() {
+        return products;
+    }
+
+    /**
+     * Creates the products and one cart per customer, every cart line starting at {@code quantity}.
+     */
+    void seed(int cartSize, int quantity) {
+        for (int i = 0; i < cartSize; i++) {
+            products.add(new Product("product " + i, PRODUCT_PRICE, PRODUCT_STOCK));
+        }
+        getBean(ProductRepository.class).saveAll(products);
+
+        CustomerRepository customerRepository = getBean(CustomerRepository.class);
+        CartRepository cartRepository = getBean(CartRepository.class);
+        for (int i = 0; i < CUSTOMER_COUNT; i++) {
+            Customer customer = customerRepository.save(new Customer("customer " + i, "customer" + i + "@mail.com"));
+            Cart cart = new Cart();
+            cart.setCustomer(customer);
+            fillCart(cart, quantity);
+            cartRepository.save(cart);
+            customerIds.add(customer.getId());
+        }
+    }
+
+    void fillCart(Cart cart, int quantity) {
+        Money linePrice = PRODUCT_PRICE.times(quantity);
+        List<CartItem> cartItems = new ArrayList<>(products.size());
+        for (Product product : products) {
+            cartItems.add(new CartItem(product, quantity, linePrice));
+        }
+        cart.setCartItems(cartItems);
+        cart.setTotalPrice(linePrice.times(products.size()));
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
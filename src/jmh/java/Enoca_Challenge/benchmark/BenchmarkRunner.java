@@ -0,0 +1,35 @@
+package Enoca_Challenge.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Runs the benchmarks once per thread count listed in {@code jmh.threads} and writes one JSON result file per
+ * thread count to {@code jmh.results}, so results of two releases can be diffed file by file. Any arguments are
+ * passed to JMH as regular command line options.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        File resultsDirectory = new File(System.getProperty("jmh.results", "target/jmh"));
+        if (!resultsDirectory.isDirectory() && !resultsDirectory.mkdirs()) {
+            throw new IllegalStateException("Could not create " + resultsDirectory);
+        }
+
+        for (String threads : System.getProperty("jmh.threads", "1").split(",")) {
+            int threadCount = Integer.parseInt(threads.trim());
+            new Runner(new OptionsBuilder()
+                    .parent(commandLineOptions)
+                    .threads(threadCount)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(resultsDirectory, "results-" + threadCount + "-threads.json").getPath())
+                    .build())
+                    .run();
+        }
+    }
+}
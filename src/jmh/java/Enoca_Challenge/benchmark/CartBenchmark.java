@@ -0,0 +1,71 @@
+package Enoca_Challenge.benchmark;
+
+import Enoca_Challenge.dto.request.CartItemRequest;
+import Enoca_Challenge.dto.response.CartResponse;
+import Enoca_Challenge.service.CartService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cart mutations against a seeded database. Every benchmark thread works on its own customer, so the numbers
+ * measure the cost of a mutation and not lock contention on a single cart.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CartBenchmark {
+
+    // High enough that reduceProductQuantity never removes a line during a run
+    private static final int INITIAL_QUANTITY = 10_000_000;
+
+    @Param({"1", "10", "100"})
+    public int cartSize;
+
+    private final AtomicInteger nextCustomer = new AtomicInteger();
+    private BenchmarkDatabase database;
+    private CartService cartService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        database = new BenchmarkDatabase("cartBenchmark" + cartSize);
+        database.seed(cartSize, INITIAL_QUANTITY);
+        cartService = database.getBean(CartService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @State(Scope.Thread)
+    public static class CustomerState {
+        private Long customerId;
+        private int nextProduct;
+
+        @Setup(Level.Trial)
+        public void setup(CartBenchmark benchmark) {
+            customerId = benchmark.database.customerIds()
+                    .get(benchmark.nextCustomer.getAndIncrement() % BenchmarkDatabase.CUSTOMER_COUNT);
+        }
+
+        CartItemRequest nextRequest(CartBenchmark benchmark) {
+            Long productId = benchmark.database.products().get(nextProduct++ % benchmark.cartSize).getId();
+            return new CartItemRequest(customerId, productId);
+        }
+    }
+
+    @Benchmark
+    public CartResponse addProductToCart(CustomerState customer) {
+        return cartService.addProductToCart(customer.nextRequest(this));
+    }
+
+    @Benchmark
+    public CartResponse reduceProductQuantity(CustomerState customer) {
+        return cartService.reduceProductQuantity(customer.nextRequest(this));
+    }
+}
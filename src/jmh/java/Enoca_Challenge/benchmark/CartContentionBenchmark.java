@@ -0,0 +1,72 @@
+package Enoca_Challenge.benchmark;
+
+import Enoca_Challenge.dto.request.CartItemRequest;
+import Enoca_Challenge.dto.response.CartResponse;
+import Enoca_Challenge.service.CartService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cart mutations when several threads change the same carts, with per-customer serialization switched on and
+ * off. With striping off, conflicting changes are only resolved by optimistic retries. Run it with more than one
+ * thread, for example {@code -Djmh.threads=8}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CartContentionBenchmark {
+
+    private static final int CART_SIZE = 10;
+
+    @Param({"true", "false"})
+    public boolean striping;
+
+    // Threads are spread over this many customers, 1 means every thread changes the same cart
+    @Param({"1", "64"})
+    public int customers;
+
+    private final AtomicInteger nextThread = new AtomicInteger();
+    private BenchmarkDatabase database;
+    private CartService cartService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        database = new BenchmarkDatabase("cartContentionBenchmark",
+                "enoca.cart.striping.enabled=" + striping,
+                "enoca.cart.retry.max-attempts=1000");
+        database.seed(CART_SIZE, 1);
+        cartService = database.getBean(CartService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @State(Scope.Thread)
+    public static class CustomerState {
+        private Long customerId;
+        private int nextProduct;
+
+        @Setup(Level.Trial)
+        public void setup(CartContentionBenchmark benchmark) {
+            int customer = benchmark.nextThread.getAndIncrement() % benchmark.customers;
+            customerId = benchmark.database.customerIds().get(customer);
+        }
+
+        CartItemRequest nextRequest(CartContentionBenchmark benchmark) {
+            Long productId = benchmark.database.products().get(nextProduct++ % CART_SIZE).getId();
+            return new CartItemRequest(customerId, productId);
+        }
+    }
+
+    @Benchmark
+    public CartResponse addProductToCart(CustomerState customer) {
+        return cartService.addProductToCart(customer.nextRequest(this));
+    }
+}
@@ -0,0 +1,47 @@
+package Enoca_Challenge.benchmark;
+
+import Enoca_Challenge.model.Customer;
+import Enoca_Challenge.model.Money;
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Copy of the order mapping with the IDENTITY ids every entity used before the pooled sequences, only used to
+ * measure the insert cost of that mapping. Hibernate has to run every IDENTITY insert on its own to read the id
+ * back, so none of these inserts are batched.
+ */
+@Entity
+@Table(name = "identity_orders")
+public class IdentityOrder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    @ManyToOne
+    private Customer customer;
+    @OneToMany(cascade = CascadeType.ALL)
+    private List<IdentityOrderItem> orderItems;
+    private Money totalPrice;
+    private String code;
+
+    public IdentityOrder(Customer customer, Money totalPrice, List<IdentityOrderItem> orderItems) {
+        this.customer = customer;
+        this.totalPrice = totalPrice;
+        this.orderItems = orderItems;
+    }
+
+    protected IdentityOrder() {
+
+    }
+}
@@ -0,0 +1,43 @@
+package Enoca_Challenge.benchmark;
+
+import Enoca_Challenge.model.Money;
+import Enoca_Challenge.model.Product;
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Order item of an {@link IdentityOrder}.
+ */
+@Entity
+public class IdentityOrderItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    @ManyToOne
+    private Product product;
+    private String productName;
+    private Integer quantity;
+    private Money priceAtTime;
+
+    public IdentityOrderItem(Product product, String productName, Integer quantity, Money priceAtTime) {
+        this.product = product;
+        this.productName = productName;
+        this.quantity = quantity;
+        this.priceAtTime = priceAtTime;
+    }
+
+    protected IdentityOrderItem() {
+
+    }
+}
@@ -0,0 +1,57 @@
+package Enoca_Challenge.benchmark;
+
+import Enoca_Challenge.model.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The arithmetic a cart does on every change, a line price for each item summed up to the cart total, once with
+ * {@link BigDecimal} and once with {@link Money}. Run with {@code -prof gc} to compare the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int cartSize;
+
+    private BigDecimal[] decimalPrices;
+    private Money[] moneyPrices;
+    private int[] quantities;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        decimalPrices = new BigDecimal[cartSize];
+        moneyPrices = new Money[cartSize];
+        quantities = new int[cartSize];
+        for (int i = 0; i < cartSize; i++) {
+            decimalPrices[i] = BenchmarkDatabase.PRODUCT_PRICE.plus(Money.ofMinor(i)).toBigDecimal();
+            moneyPrices[i] = BenchmarkDatabase.PRODUCT_PRICE.plus(Money.ofMinor(i));
+            quantities[i] = 1 + i % 5;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalCartTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < cartSize; i++) {
+            total = total.add(decimalPrices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money moneyCartTotal() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < cartSize; i++) {
+            total = total.plus(moneyPrices[i].times(quantities[i]));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,141 @@
+package Enoca_Challenge.benchmark;
+
+import Enoca_Challenge.dto.response.OrderResponse;
+import Enoca_Challenge.model.Cart;
+import Enoca_Challenge.model.Customer;
+import Enoca_Challenge.model.Money;
+import Enoca_Challenge.model.Order;
+import Enoca_Challenge.model.OrderCodeGenerator;
+import Enoca_Challenge.model.OrderItem;
+import Enoca_Challenge.model.Product;
+import Enoca_Challenge.repository.CartRepository;
+import Enoca_Challenge.repository.CustomerRepository;
+import Enoca_Challenge.repository.OrderRepository;
+import Enoca_Challenge.service.OrderService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Order placement and raw order insert throughput against a seeded database. Carts are refilled before every
+ * {@code placeOrder} call, which JMH keeps out of the measurement. {@code insertIdentityOrders} inserts the same
+ * orders with the IDENTITY ids used before the pooled sequences, as the baseline for {@code insertOrders}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OrderBenchmark {
+
+    private static final int ORDERS_PER_INSERT = 100;
+
+    @Param({"1", "10", "100"})
+    public int cartSize;
+
+    private final AtomicInteger nextCustomer = new AtomicInteger();
+    private BenchmarkDatabase database;
+    private OrderService orderService;
+    private OrderRepository orderRepository;
+    private OrderCodeGenerator orderCodeGenerator;
+    private CartRepository cartRepository;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        database = new BenchmarkDatabase("orderBenchmark" + cartSize);
+        database.seed(cartSize, 1);
+        orderService = database.getBean(OrderService.class);
+        orderRepository = database.getBean(OrderRepository.class);
+        orderCodeGenerator = database.getBean(OrderCodeGenerator.class);
+        cartRepository = database.getBean(CartRepository.class);
+        transactionTemplate = database.getBean(TransactionTemplate.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                database.getBean(EntityManagerFactory.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @State(Scope.Thread)
+    public static class CustomerState {
+        private Long customerId;
+        private Customer customer;
+
+        @Setup(Level.Trial)
+        public void setup(OrderBenchmark benchmark) {
+            customerId = benchmark.database.customerIds()
+                    .get(benchmark.nextCustomer.getAndIncrement() % BenchmarkDatabase.CUSTOMER_COUNT);
+            customer = benchmark.database.getBean(CustomerRepository.class).findById(customerId).orElseThrow();
+        }
+
+        @Setup(Level.Invocation)
+        public void refillCart(OrderBenchmark benchmark) {
+            Cart cart = benchmark.cartRepository.findByCustomerId(customerId).orElseThrow();
+            if (cart.getCartItems().isEmpty()) {
+                benchmark.database.fillCart(cart, 1);
+                benchmark.cartRepository.save(cart);
+            }
+        }
+    }
+
+    @Benchmark
+    public OrderResponse placeOrder(CustomerState customer) {
+        return orderService.placeOrder(customer.customerId);
+    }
+
+    /**
+     * Saves {@value #ORDERS_PER_INSERT} orders of {@code cartSize} lines in one transaction, the cost of id
+     * allocation and JDBC insert batching without any of the cart handling around it.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ORDERS_PER_INSERT)
+    public List<Order> insertOrders(CustomerState customer) {
+        List<Order> orders = new ArrayList<>(ORDERS_PER_INSERT);
+        for (int i = 0; i < ORDERS_PER_INSERT; i++) {
+            List<OrderItem> orderItems = new ArrayList<>(cartSize);
+            for (Product product : database.products()) {
+                orderItems.add(new OrderItem(product, product.getName(), 1, product.getPrice()));
+            }
+            Money totalPrice = BenchmarkDatabase.PRODUCT_PRICE.times(cartSize);
+            Order order = new Order(customer.customer, totalPrice, orderItems);
+            order.setCode(orderCodeGenerator.next());
+            orders.add(order);
+        }
+        return transactionTemplate.execute(status -> orderRepository.saveAll(orders));
+    }
+
+    /**
+     * Same as {@code insertOrders}, but every order and order item gets its id from an IDENTITY column, so each
+     * row is inserted on its own instead of in JDBC batches.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ORDERS_PER_INSERT)
+    public List<IdentityOrder> insertIdentityOrders(CustomerState customer) {
+        List<IdentityOrder> orders = new ArrayList<>(ORDERS_PER_INSERT);
+        for (int i = 0; i < ORDERS_PER_INSERT; i++) {
+            List<IdentityOrderItem> orderItems = new ArrayList<>(cartSize);
+            for (Product product : database.products()) {
+                orderItems.add(new IdentityOrderItem(product, product.getName(), 1, product.getPrice()));
+            }
+            Money totalPrice = BenchmarkDatabase.PRODUCT_PRICE.times(cartSize);
+            orders.add(new IdentityOrder(customer.customer, totalPrice, orderItems));
+        }
+        return transactionTemplate.execute(status -> {
+            orders.forEach(entityManager::persist);
+            entityManager.flush();
+            return orders;
+        });
+    }
+}
@@ -0,0 +1,73 @@
+package Enoca_Challenge.benchmark;
+
+import Enoca_Challenge.dto.response.CartResponse;
+import Enoca_Challenge.dto.response.OrderResponse;
+import Enoca_Challenge.model.Cart;
+import Enoca_Challenge.model.CartItem;
+import Enoca_Challenge.model.Customer;
+import Enoca_Challenge.model.Money;
+import Enoca_Challenge.model.Order;
+import Enoca_Challenge.model.OrderCodeGenerator;
+import Enoca_Challenge.model.OrderItem;
+import Enoca_Challenge.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response mapping on detached, fully loaded entity graphs, so no database is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int cartSize;
+
+    private Cart cart;
+    private Order order;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Customer customer = new Customer("customer", "customer@mail.com");
+        customer.setId(1L);
+
+        List<CartItem> cartItems = new ArrayList<>(cartSize);
+        List<OrderItem> orderItems = new ArrayList<>(cartSize);
+        for (int i = 0; i < cartSize; i++) {
+            Product product = new Product("product " + i, BenchmarkDatabase.PRODUCT_PRICE, 100);
+            product.setId((long) i);
+            CartItem cartItem = new CartItem(product, 2, BenchmarkDatabase.PRODUCT_PRICE.times(2));
+            cartItem.setId((long) i);
+            cartItems.add(cartItem);
+            orderItems.add(new OrderItem(product, product.getName(), 2, cartItem.getPriceAtTime()));
+        }
+        Money totalPrice = BenchmarkDatabase.PRODUCT_PRICE.times(2 * cartSize);
+
+        cart = new Cart();
+        cart.setId(1L);
+        cart.setCustomer(customer);
+        cart.setCartItems(cartItems);
+        cart.setTotalPrice(totalPrice);
+
+        order = new Order(customer, totalPrice, orderItems);
+        order.setId(1L);
+        order.setCode(new OrderCodeGenerator(0).next());
+    }
+
+    @Benchmark
+    public CartResponse cartResponseFrom() {
+        return CartResponse.from(cart);
+    }
+
+    @Benchmark
+    public OrderResponse orderResponseFrom() {
+        return OrderResponse.from(order);
+    }
+}
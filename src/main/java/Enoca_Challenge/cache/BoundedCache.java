@@ -0,0 +1,120 @@
+package Enoca_Challenge.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread safe in-memory cache holding at most {@code maxSize} entries. Entries expire {@code ttl} after they
+ * were written, and once the cache is full the least recently used entry is evicted.
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public BoundedCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    BoundedCache(int maxSize, Duration ttl, LongSupplier ticker) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be greater than 0");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                if (size() > BoundedCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(K key) {
+        synchronized (entries) {
+            CacheEntry<V> entry = entries.get(key);
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            if (ticker.getAsLong() - entry.writtenAt() >= ttlNanos) {
+                entries.remove(key);
+                evictions++;
+                misses++;
+                return null;
+            }
+            hits++;
+            return entry.value();
+        }
+    }
+
+    /**
+     * Returns the cached value, or loads it with {@code loader} and caches it when it is absent or expired.
+     * The loader runs outside the cache lock, so concurrent misses for the same key may each call it.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        synchronized (entries) {
+            entries.put(key, new CacheEntry<>(value, ticker.getAsLong()));
+        }
+    }
+
+    /**
+     * Caches {@code value} unless a live entry already exists for {@code key}, in which case that entry is
+     * returned and the cache is left untouched. Returns null when {@code value} was cached.
+     */
+    public V putIfAbsent(K key, V value) {
+        synchronized (entries) {
+            V existing = get(key);
+            if (existing == null) {
+                put(key, value);
+            }
+            return existing;
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public CacheStats stats() {
+        synchronized (entries) {
+            return new CacheStats(hits, misses, evictions, entries.size());
+        }
+    }
+
+    private record CacheEntry<V>(V value, long writtenAt) {
+    }
+}
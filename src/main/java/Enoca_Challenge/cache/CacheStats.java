@@ -0,0 +1,9 @@
+package Enoca_Challenge.cache;
+
+public record CacheStats(
+        long hits,
+        long misses,
+        long evictions,
+        int size
+) {
+}
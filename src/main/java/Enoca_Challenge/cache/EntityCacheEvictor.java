@@ -0,0 +1,56 @@
+package Enoca_Challenge.cache;
+
+import Enoca_Challenge.model.Product;
+import Enoca_Challenge.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Evicts products from the Hibernate second-level cache. Changes made through an entity update the cache on their
+ * own, stock changes are written with plain JDBC and leave the old state behind. Products are evicted right away
+ * and once more after the commit, so a read that runs before the commit can not keep the old state in the cache.
+ */
+@Component
+public class EntityCacheEvictor {
+
+    private final Cache cache;
+
+    public EntityCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    public void evictProduct(Long id) {
+        evictProducts(List.of(id));
+    }
+
+    /**
+     * Evicts the products and the cached results of the product queries. Query results hold the values of the rows
+     * they read, not only the ids, so a row changed with plain JDBC would otherwise still be served from them.
+     */
+    public void evictProducts(Collection<Long> ids) {
+        List<Long> productIds = List.copyOf(ids);
+        runNowAndAfterCommit(() -> {
+            productIds.forEach(id -> cache.evictEntityData(Product.class, id));
+            cache.evictQueryRegion(ProductRepository.ACTIVE_PRODUCT_QUERY_REGION);
+        });
+    }
+
+    private static void runNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
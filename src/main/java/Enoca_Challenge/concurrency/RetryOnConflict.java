@@ -0,0 +1,15 @@
+package Enoca_Challenge.concurrency;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the annotated method again, in a new transaction, when it fails because another request changed the same
+ * versioned entities first. Attempts and backoff are configured under {@code enoca.cart.retry}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+}
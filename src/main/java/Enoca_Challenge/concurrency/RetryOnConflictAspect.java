@@ -0,0 +1,76 @@
+package Enoca_Challenge.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries {@link RetryOnConflict} methods on optimistic locking failures with a bounded, jittered exponential
+ * backoff. Ordered before the transaction interceptor so every attempt runs in its own transaction; when the
+ * method joins a transaction that is already running, the caller's transaction decides and nothing is retried.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class RetryOnConflictAspect {
+
+    private static final Logger log = LoggerFactory.getLogger(RetryOnConflictAspect.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public RetryOnConflictAspect(MeterRegistry meterRegistry,
+                                 @Value("${enoca.cart.retry.max-attempts}") int maxAttempts,
+                                 @Value("${enoca.cart.retry.initial-backoff}") Duration initialBackoff,
+                                 @Value("${enoca.cart.retry.max-backoff}") Duration maxBackoff) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+    }
+
+    @Around("@annotation(Enoca_Challenge.concurrency.RetryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        String method = joinPoint.getSignature().getName();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                meterRegistry.counter("enoca.cart.conflicts", "method", method).increment();
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("enoca.cart.retries.exhausted", "method", method).increment();
+                    log.error("{} still conflicts after {} attempts, giving up", method, attempt);
+                    throw e;
+                }
+                meterRegistry.counter("enoca.cart.retries", "method", method).increment();
+                long backoff = backoffMillis(attempt);
+                log.debug("{} conflicted on attempt {}, retrying in {} ms", method, attempt, backoff);
+                Thread.sleep(backoff);
+            }
+        }
+    }
+
+    // Half of the exponential delay is fixed and half is random, so competing requests do not retry in lockstep
+    private long backoffMillis(int attempt) {
+        long delay = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+}
@@ -0,0 +1,15 @@
+package Enoca_Challenge.concurrency;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Applies calls of the annotated method for the same customer one at a time, in arrival order. The customer is
+ * taken from the first argument, which must be the customer id or a {@code CartItemRequest}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SerializedPerCustomer {
+}
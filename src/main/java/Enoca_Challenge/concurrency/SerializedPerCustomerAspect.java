@@ -0,0 +1,51 @@
+package Enoca_Challenge.concurrency;
+
+import Enoca_Challenge.dto.request.CartItemRequest;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Holds the {@link StripedLocks} lock of the customer while a {@link SerializedPerCustomer} method runs on the
+ * caller's thread, so one customer's cart changes never race each other and never need an optimistic retry inside
+ * this instance. Ordered before {@link RetryOnConflictAspect} and the transaction interceptor, so retries and
+ * transactions run while the lock is held. The locks are reentrant, a serialized method that calls another one for
+ * the same customer, like placing an order and emptying the cart, takes the lock it already holds again at once.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+@ConditionalOnProperty(name = "enoca.cart.striping.enabled", havingValue = "true", matchIfMissing = true)
+public class SerializedPerCustomerAspect {
+
+    private final StripedLocks locks;
+
+    public SerializedPerCustomerAspect(@Value("${enoca.cart.striping.stripes}") int stripes) {
+        this.locks = new StripedLocks(stripes);
+    }
+
+    @Around("@annotation(Enoca_Challenge.concurrency.SerializedPerCustomer)")
+    public Object serialize(ProceedingJoinPoint joinPoint) throws Throwable {
+        Lock lock = locks.get(customerId(joinPoint.getArgs()[0]));
+        lock.lockInterruptibly();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Long customerId(Object argument) {
+        if (argument instanceof CartItemRequest request) {
+            return request.customerId();
+        }
+        return (Long) argument;
+    }
+}
@@ -0,0 +1,27 @@
+package Enoca_Challenge.concurrency;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed number of locks, picked by key. The same key always maps to the same lock, different keys share a lock
+ * only when they fall on the same stripe. Locks are fair, so waiting threads get them in arrival order.
+ */
+public class StripedLocks {
+
+    private final Lock[] locks;
+
+    public StripedLocks(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Stripe count must be greater than 0");
+        }
+        this.locks = new Lock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock(true);
+        }
+    }
+
+    public Lock get(Object key) {
+        return locks[Math.floorMod(key.hashCode(), locks.length)];
+    }
+}
@@ -0,0 +1,26 @@
+package Enoca_Challenge.config;
+
+import Enoca_Challenge.cache.BoundedCache;
+import Enoca_Challenge.dto.response.ProductResponse;
+import Enoca_Challenge.service.OrderResponseCache.SerializedOrder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public BoundedCache<Long, ProductResponse> productCache(@Value("${enoca.cache.product.max-size}") int maxSize,
+                                                           @Value("${enoca.cache.product.ttl}") Duration ttl) {
+        return new BoundedCache<>(maxSize, ttl);
+    }
+
+    @Bean
+    public BoundedCache<String, SerializedOrder> orderCache(@Value("${enoca.cache.order-response.max-size}") int maxSize,
+                                                            @Value("${enoca.cache.order-response.ttl}") Duration ttl) {
+        return new BoundedCache<>(maxSize, ttl);
+    }
+}
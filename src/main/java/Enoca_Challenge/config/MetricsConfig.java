@@ -0,0 +1,82 @@
+package Enoca_Challenge.config;
+
+import Enoca_Challenge.cache.BoundedCache;
+import Enoca_Challenge.metrics.StatementCounter;
+import Enoca_Challenge.model.Customer;
+import Enoca_Challenge.model.Product;
+import Enoca_Challenge.repository.ProductRepository;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+@Configuration
+public class MetricsConfig {
+
+    private final MeterRegistry meterRegistry;
+
+    public MetricsConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public TimedAspect timedAspect() {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCounter());
+    }
+
+    @Bean
+    public MeterBinder cacheMetrics(Map<String, BoundedCache<?, ?>> caches) {
+        return registry -> caches.forEach((name, cache) -> {
+            FunctionCounter.builder("enoca.cache.hits", cache, c -> c.stats().hits()).tag("cache", name).register(registry);
+            FunctionCounter.builder("enoca.cache.misses", cache, c -> c.stats().misses()).tag("cache", name).register(registry);
+            FunctionCounter.builder("enoca.cache.evictions", cache, c -> c.stats().evictions()).tag("cache", name).register(registry);
+            Gauge.builder("enoca.cache.size", cache, c -> c.stats().size()).tag("cache", name).register(registry);
+        });
+    }
+
+    /**
+     * Exports the hits, misses and puts of the second-level cache regions next to the other caches.
+     */
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Function<Statistics, CacheRegionStatistics>> regions = Map.of(
+                Product.CACHE_REGION, s -> s.getDomainDataRegionStatistics(Product.CACHE_REGION),
+                Customer.CACHE_REGION, s -> s.getDomainDataRegionStatistics(Customer.CACHE_REGION),
+                // Query regions have no statistics until the first query used them
+                ProductRepository.ACTIVE_PRODUCT_QUERY_REGION,
+                s -> s.getQueryRegionStatistics(ProductRepository.ACTIVE_PRODUCT_QUERY_REGION));
+        return registry -> regions.forEach((name, region) -> {
+            regionCounter(registry, "enoca.cache.hits", name, statistics, region, CacheRegionStatistics::getHitCount);
+            regionCounter(registry, "enoca.cache.misses", name, statistics, region, CacheRegionStatistics::getMissCount);
+            regionCounter(registry, "enoca.cache.puts", name, statistics, region, CacheRegionStatistics::getPutCount);
+        });
+    }
+
+    private static void regionCounter(MeterRegistry registry, String meter, String name, Statistics statistics,
+                                      Function<Statistics, CacheRegionStatistics> region,
+                                      ToLongFunction<CacheRegionStatistics> count) {
+        FunctionCounter.builder(meter, statistics, s -> {
+            CacheRegionStatistics regionStatistics = region.apply(s);
+            return regionStatistics == null ? 0 : count.applyAsLong(regionStatistics);
+        }).tag("cache", name).register(registry);
+    }
+}
@@ -0,0 +1,25 @@
+package Enoca_Challenge.config;
+
+import Enoca_Challenge.model.OrderCodeGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Sets up the order code generator for this node. Every instance of the application that shares a database needs
+ * its own {@code enoca.orders.code.node-id}, otherwise two instances can generate the same code. Local runs and
+ * tests default to node 0, the {@code prod} profile has no default and an instance without a node id fails to start
+ * instead of sharing node 0 with every other instance.
+ */
+@Configuration
+public class OrderCodeConfig {
+
+    @Bean
+    public OrderCodeGenerator orderCodeGenerator(@Value("${enoca.orders.code.node-id}") Integer nodeId) {
+        if (nodeId == null) {
+            throw new IllegalStateException("enoca.orders.code.node-id is not set. Set ENOCA_NODE_ID to a number "
+                    + "between 0 and " + OrderCodeGenerator.MAX_NODE_ID + " that no other instance uses.");
+        }
+        return new OrderCodeGenerator(nodeId);
+    }
+}
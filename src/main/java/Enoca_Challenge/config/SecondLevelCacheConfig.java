@@ -0,0 +1,79 @@
+package Enoca_Challenge.config;
+
+import Enoca_Challenge.model.Customer;
+import Enoca_Challenge.model.Product;
+import Enoca_Challenge.repository.ProductRepository;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Backs the Hibernate second-level cache with in-process Caffeine caches. Every region is created here with the
+ * size and time to live configured under {@code enoca.cache.second-level}, and Hibernate fails to start instead of
+ * creating a region nobody configured.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    // Holds one entry per table, query results are only valid as long as the entries they are checked against
+    private static final long TIMESTAMPS_MAX_SIZE = 1_000;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(
+            @Value("${enoca.cache.second-level.product.max-size}") long productMaxSize,
+            @Value("${enoca.cache.second-level.product.ttl}") Duration productTtl,
+            @Value("${enoca.cache.second-level.customer.max-size}") long customerMaxSize,
+            @Value("${enoca.cache.second-level.customer.ttl}") Duration customerTtl,
+            @Value("${enoca.cache.second-level.query.max-size}") long queryMaxSize,
+            @Value("${enoca.cache.second-level.query.ttl}") Duration queryTtl) {
+        // A manager of its own per application context, so contexts in the same JVM never share regions
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("urn:enoca:second-level-cache:" + UUID.randomUUID()), null);
+        cacheManager.createCache(Product.CACHE_REGION, region(productMaxSize, productTtl));
+        cacheManager.createCache(Customer.CACHE_REGION, region(customerMaxSize, customerTtl));
+        cacheManager.createCache(ProductRepository.ACTIVE_PRODUCT_QUERY_REGION, region(queryMaxSize, queryTtl));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, region(queryMaxSize, queryTtl));
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                region(TIMESTAMPS_MAX_SIZE, null));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+            // Region statistics are exported as metrics, the per session summary in the log is not needed
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+            properties.put(AvailableSettings.LOG_SESSION_METRICS, false);
+        };
+    }
+
+    // Entries are stored by reference, Hibernate only puts immutable, already disassembled state into the cache
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        return configuration;
+    }
+}
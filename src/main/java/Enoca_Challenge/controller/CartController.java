@@ -2,10 +2,15 @@ package Enoca_Challenge.controller;
 
 import Enoca_Challenge.dto.request.CartItemRequest;
 import Enoca_Challenge.dto.response.CartResponse;
+import Enoca_Challenge.model.IdempotencyKey;
 import Enoca_Challenge.service.CartService;
+import Enoca_Challenge.service.IdempotencyService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -14,14 +19,17 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 @RestController
+@Validated
 @RequestMapping("/api/v1/carts")
 @Tag(name = "Cart API v1", description = "Endpoints for managing customer carts, including adding, removing, and fetching cart items.")
 public class CartController {
 
     private final CartService cartService;
+    private final IdempotencyService idempotencyService;
 
-    public CartController(CartService cartService) {
+    public CartController(CartService cartService, IdempotencyService idempotencyService) {
         this.cartService = cartService;
+        this.idempotencyService = idempotencyService;
     }
 
     @GetMapping("/{customerId}")
@@ -30,7 +38,8 @@ public class CartController {
             summary = "Retrieve customer cart",
             description = """
                     Fetches the cart details for a specific customer identified by their ID.\s
-                    This includes all items currently in the cart along with their quantities and total price.
+                    This includes all items currently in the cart along with their quantities and total price.\s
+                    Send the returned `ETag` in `If-None-Match` to get an empty 304 response while the cart is unchanged.
                     """,
             responses = {
                     @ApiResponse(
@@ -38,6 +47,11 @@ public class CartController {
                             description = "Cart retrieved successfully",
                             content = @Content(schema = @Schema(implementation = CartResponse.class))
                     ),
+                    @ApiResponse(
+                            responseCode = "304",
+                            description = "Not modified - The cart still matches the `If-None-Match` ETag",
+                            content = @Content(schema = @Schema(hidden = true))
+                    ),
                     @ApiResponse(
                             responseCode = "400",
                             description = "Cart is empty",
@@ -55,8 +69,9 @@ public class CartController {
                     )
             }
     )
-    public ResponseEntity<CartResponse> getCart(@PathVariable Long customerId) {
-        return ResponseEntity.ok(cartService.getCart(customerId));
+    public ResponseEntity<CartResponse> getCart(@PathVariable Long customerId, WebRequest request) {
+        return ConditionalResponses.okUnlessNotModified(request, cartService.getCartETag(customerId),
+                () -> cartService.getCart(customerId));
     }
 
     @PostMapping("/add")
@@ -65,7 +80,8 @@ public class CartController {
             summary = "Add a product to the cart",
             description = """
                     Adds a specified product to the cart or increases its quantity if it already exists in the cart.\s
-                    The request should include the product ID, customer ID, and desired quantity.
+                    The request should include the product ID, customer ID, and desired quantity.\s
+                    Retries sent with the same `Idempotency-Key` header return the first response without adding the product again.
                     """,
             responses = {
                     @ApiResponse(
@@ -78,6 +94,11 @@ public class CartController {
                             description = "Invalid request, product out of stock, or insufficient stock available",
                             content = @Content(schema = @Schema(hidden = true))
                     ),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "Idempotency key is used by another request or the first request is still in progress",
+                            content = @Content(schema = @Schema(hidden = true))
+                    ),
                     @ApiResponse(
                             responseCode = "500",
                             description = "Internal server error",
@@ -85,8 +106,12 @@ public class CartController {
                     )
             }
     )
-    public ResponseEntity<CartResponse> addProductToCart(@Valid @RequestBody CartItemRequest request) {
-        return ResponseEntity.ok(cartService.addProductToCart(request));
+    public ResponseEntity<CartResponse> addProductToCart(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false)
+            @Pattern(regexp = IdempotencyKey.KEY_PATTERN, message = IdempotencyKey.KEY_MESSAGE) String idempotencyKey,
+            @Valid @RequestBody CartItemRequest request) {
+        return ResponseEntity.ok(idempotencyService.execute(request.customerId(), idempotencyKey,
+                "add " + request, CartResponse.class, () -> cartService.addProductToCart(request)));
     }
 
     @PostMapping("/reduce")
@@ -95,7 +120,8 @@ public class CartController {
             summary = "Reduce product quantity in the cart",
             description = """
                     Reduces the quantity of a specified product in the cart.\s
-                    If the quantity reaches zero, the product is removed from the cart.
+                    If the quantity reaches zero, the product is removed from the cart.\s
+                    Retries sent with the same `Idempotency-Key` header return the first response without reducing the quantity again.
                     """,
             responses = {
                     @ApiResponse(
@@ -108,6 +134,11 @@ public class CartController {
                             description = "Product not found in the cart or customer does not exist",
                             content = @Content(schema = @Schema(hidden = true))
                     ),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "Idempotency key is used by another request or the first request is still in progress",
+                            content = @Content(schema = @Schema(hidden = true))
+                    ),
                     @ApiResponse(
                             responseCode = "500",
                             description = "Internal server error",
@@ -115,8 +146,12 @@ public class CartController {
                     )
             }
     )
-    public ResponseEntity<CartResponse> reduceProductQuantity(@Valid @RequestBody CartItemRequest request) {
-        return ResponseEntity.ok(cartService.reduceProductQuantity(request));
+    public ResponseEntity<CartResponse> reduceProductQuantity(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false)
+            @Pattern(regexp = IdempotencyKey.KEY_PATTERN, message = IdempotencyKey.KEY_MESSAGE) String idempotencyKey,
+            @Valid @RequestBody CartItemRequest request) {
+        return ResponseEntity.ok(idempotencyService.execute(request.customerId(), idempotencyKey,
+                "reduce " + request, CartResponse.class, () -> cartService.reduceProductQuantity(request)));
     }
 
     @DeleteMapping("/remove-item")
@@ -0,0 +1,31 @@
+package Enoca_Challenge.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Answers conditional GET requests from a cheap version tag, so an unchanged resource is never loaded or built.
+ */
+final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    /**
+     * Returns 304 when {@code If-None-Match} matches {@code eTag}, otherwise the body built by {@code body}
+     * together with the tag. Without a tag the body is always returned.
+     */
+    static <T> ResponseEntity<T> okUnlessNotModified(WebRequest request, Optional<String> eTag, Supplier<T> body) {
+        if (eTag.isEmpty()) {
+            return ResponseEntity.ok(body.get());
+        }
+        if (request.checkNotModified(eTag.get())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag.get()).build();
+        }
+        return ResponseEntity.ok().eTag(eTag.get()).body(body.get());
+    }
+}
@@ -1,14 +1,27 @@
 package Enoca_Challenge.controller;
 
+import Enoca_Challenge.dto.response.CursorPageResponse;
 import Enoca_Challenge.dto.response.OrderResponse;
+import Enoca_Challenge.dto.response.OrderStatusResponse;
+import Enoca_Challenge.model.IdempotencyKey;
+import Enoca_Challenge.service.AsyncOrderService;
+import Enoca_Challenge.service.IdempotencyService;
+import Enoca_Challenge.service.OrderExportService;
 import Enoca_Challenge.service.OrderService;
+import jakarta.validation.constraints.Pattern;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,14 +29,22 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 @RestController
+@Validated
 @RequestMapping("/api/v1/orders")
 @Tag(name = "Order API v1", description = "Operations for managing customer orders, including placing, retrieving, and listing orders.")
 public class OrderController {
 
     private final OrderService orderService;
+    private final AsyncOrderService asyncOrderService;
+    private final IdempotencyService idempotencyService;
+    private final OrderExportService orderExportService;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, AsyncOrderService asyncOrderService,
+                           IdempotencyService idempotencyService, OrderExportService orderExportService) {
         this.orderService = orderService;
+        this.asyncOrderService = asyncOrderService;
+        this.idempotencyService = idempotencyService;
+        this.orderExportService = orderExportService;
     }
 
     @PostMapping("/{customerId}")
@@ -32,7 +53,8 @@ public class OrderController {
             summary = "Place an order",
             description = """
                     Places an order for the customer identified by the provided customer ID.\s
-                    This endpoint validates the customer's cart and ensures product availability before placing the order.
+                    This endpoint validates the customer's cart and ensures product availability before placing the order.\s
+                    Retries sent with the same `Idempotency-Key` header return the first order instead of placing a new one.
                     """,
             responses = {
                     @ApiResponse(
@@ -50,6 +72,11 @@ public class OrderController {
                             description = "Customer or product not found",
                             content = @Content(schema = @Schema(hidden = true))
                     ),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "Idempotency key is used by another request or the first request is still in progress",
+                            content = @Content(schema = @Schema(hidden = true))
+                    ),
                     @ApiResponse(
                             responseCode = "500",
                             description = "Internal server error",
@@ -57,10 +84,77 @@ public class OrderController {
                     )
             }
     )
-    public ResponseEntity<OrderResponse> placeOrder(@PathVariable Long customerId) {
+    public ResponseEntity<OrderResponse> placeOrder(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false)
+            @Pattern(regexp = IdempotencyKey.KEY_PATTERN, message = IdempotencyKey.KEY_MESSAGE) String idempotencyKey,
+            @PathVariable Long customerId) {
         return ResponseEntity
                 .status(HttpStatus.CREATED)
-                .body(orderService.placeOrder(customerId));
+                .body(idempotencyService.execute(customerId, idempotencyKey, "order " + customerId,
+                        OrderResponse.class, () -> orderService.placeOrder(customerId)));
+    }
+
+    @PostMapping("/{customerId}/async")
+    @Operation(
+            method = "POST",
+            summary = "Queue an order",
+            description = """
+                    Accepts an order for the customer identified by the provided customer ID without waiting for it to be placed.\s
+                    The returned order code can be used to poll the order status until it is CONFIRMED, REJECTED or FAILED.
+                    """,
+            responses = {
+                    @ApiResponse(
+                            responseCode = "202",
+                            description = "Order accepted and waiting to be placed",
+                            content = @Content(schema = @Schema(implementation = OrderStatusResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "503",
+                            description = "Too many orders are waiting to be placed, retry later",
+                            content = @Content(schema = @Schema(hidden = true))
+                    ),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "Internal server error",
+                            content = @Content(schema = @Schema(hidden = true))
+                    )
+            }
+    )
+    public ResponseEntity<OrderStatusResponse> submitOrder(@PathVariable Long customerId) {
+        return ResponseEntity
+                .status(HttpStatus.ACCEPTED)
+                .body(asyncOrderService.submitOrder(customerId));
+    }
+
+    @GetMapping("/status/{orderCode}")
+    @Operation(
+            method = "GET",
+            summary = "Retrieve the status of an order",
+            description = """
+                    Returns whether a queued order is still PENDING, has been CONFIRMED, was REJECTED or FAILED.\s
+                    Rejected orders include the reason, for example an empty cart or insufficient stock.\s
+                    Failed orders ran into an error on the server and can be submitted again.
+                    """,
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Order status retrieved successfully",
+                            content = @Content(schema = @Schema(implementation = OrderStatusResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Order not found - The order code is invalid or does not exist",
+                            content = @Content(schema = @Schema(hidden = true))
+                    ),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "Internal server error",
+                            content = @Content(schema = @Schema(hidden = true))
+                    )
+            }
+    )
+    public ResponseEntity<OrderStatusResponse> getOrderStatus(@PathVariable String orderCode) {
+        return ResponseEntity.ok(asyncOrderService.getOrderStatus(orderCode));
     }
 
     @GetMapping("/list/{customerId}")
@@ -100,13 +194,97 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getAllOrdersForCustomer(customerId, pageable));
     }
 
-    @GetMapping("/{orderCode}")
+    @GetMapping("/list/{customerId}/cursor")
+    @Operation(
+            method = "GET",
+            summary = "List orders for a customer with a cursor",
+            description = """
+                    Retrieves the orders placed by the specified customer, newest first, one slice at a time.\s
+                    Unlike the paginated listing this endpoint never counts the orders, so deep pages cost the same as the first one.
+                    - `cursor`: The `nextCursor` value of the previous response. Omit it to get the first slice.
+                    - `size`: The number of records per slice (default: 20, max: 100).
+                    """,
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Orders retrieved successfully, `nextCursor` is null on the last slice",
+                            content = @Content(schema = @Schema(implementation = CursorPageResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid cursor",
+                            content = @Content(schema = @Schema(hidden = true))
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Customer not found",
+                            content = @Content(schema = @Schema(hidden = true))
+                    ),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "Internal server error",
+                            content = @Content(schema = @Schema(hidden = true))
+                    )
+            }
+    )
+    public ResponseEntity<CursorPageResponse<OrderResponse>> getOrdersForCustomerByCursor(
+            @PathVariable Long customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(orderService.getOrdersForCustomerByCursor(customerId, cursor, size));
+    }
+
+    @GetMapping("/export/{customerId}")
+    @Operation(
+            method = "GET",
+            summary = "Export the full order history of a customer",
+            description = """
+                    Streams every order placed by the specified customer, oldest first, while the orders are read.\s
+                    The response is written as it is produced, so histories of any size can be downloaded in one request.
+                    - `format`: `NDJSON` (default) writes one order JSON per line, `CSV` writes one row per order item.
+                    """,
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Order history is being streamed",
+                            content = {
+                                    @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = OrderResponse.class)),
+                                    @Content(mediaType = "text/csv", schema = @Schema(type = "string"))
+                            }
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Customer not found",
+                            content = @Content(schema = @Schema(hidden = true))
+                    ),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "Internal server error",
+                            content = @Content(schema = @Schema(hidden = true))
+                    )
+            }
+    )
+    public ResponseEntity<StreamingResponseBody> exportOrdersForCustomer(
+            @PathVariable Long customerId,
+            @RequestParam(defaultValue = "NDJSON") OrderExportService.Format format) {
+        StreamingResponseBody body = orderExportService.exportOrders(customerId, format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.mediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("orders-" + customerId + "." + format.fileExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    @GetMapping(value = "/{orderCode}", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(
             method = "GET",
             summary = "Retrieve an order by its code",
             description = """
                     Fetches the details of a specific order using its unique order code.\s
-                    The order code is a unique identifier generated at the time of order placement.
+                    The order code is a unique identifier generated at the time of order placement.\s
+                    Send the returned `ETag` in `If-None-Match` to get an empty 304 response while the order is unchanged.
                     """,
             responses = {
                     @ApiResponse(
@@ -114,6 +292,11 @@ public class OrderController {
                             description = "Order retrieved successfully",
                             content = @Content(schema = @Schema(implementation = OrderResponse.class))
                     ),
+                    @ApiResponse(
+                            responseCode = "304",
+                            description = "Not modified - The order still matches the `If-None-Match` ETag",
+                            content = @Content(schema = @Schema(hidden = true))
+                    ),
                     @ApiResponse(
                             responseCode = "404",
                             description = "Order not found - The order code is invalid or does not exist",
@@ -126,8 +309,9 @@ public class OrderController {
                     )
             }
     )
-    public ResponseEntity<OrderResponse> getOrderForCode(@PathVariable String orderCode) {
-        OrderResponse response = orderService.getOrderForCode(orderCode);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<byte[]> getOrderForCode(@PathVariable String orderCode, WebRequest request) {
+        // The cached JSON is written as is, it is never deserialized or serialized again
+        return ConditionalResponses.okUnlessNotModified(request, orderService.getOrderETag(orderCode),
+                () -> orderService.getSerializedOrder(orderCode).body());
     }
 }
@@ -1,7 +1,16 @@
 package Enoca_Challenge.controller;
 
+import Enoca_Challenge.dto.request.ProductBatchRequest;
+import Enoca_Challenge.dto.request.ProductFilter;
 import Enoca_Challenge.dto.request.ProductRequest;
+import Enoca_Challenge.dto.request.ProductSort;
+import Enoca_Challenge.dto.request.StockAdjustmentRequest;
+import Enoca_Challenge.dto.response.CursorPageResponse;
+import Enoca_Challenge.dto.response.ProductBatchResponse;
+import Enoca_Challenge.dto.response.ProductImportResponse;
 import Enoca_Challenge.dto.response.ProductResponse;
+import Enoca_Challenge.dto.response.StockAdjustmentResponse;
+import Enoca_Challenge.service.ProductImportService;
 import Enoca_Challenge.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -9,9 +18,17 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/products")
@@ -19,9 +36,11 @@ import org.springframework.web.bind.annotation.*;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductImportService productImportService) {
         this.productService = productService;
+        this.productImportService = productImportService;
     }
 
     @PostMapping
@@ -56,17 +75,194 @@ public class ProductController {
                 .body(productService.createProduct(productRequest));
     }
 
+    @GetMapping
+    @Operation(
+            method = "GET",
+            summary = "List products",
+            description = """
+                    Lists the products that are not deleted, one slice at a time.\s
+                    - `minPrice`, `maxPrice`: Only list products within this price range, both ends included.
+                    - `inStock`: Only list products with stock left (default: false).
+                    - `sort`: `ID` (default), `PRICE_ASC`, `PRICE_DESC` or `NAME_ASC`.
+                    - `cursor`: The `nextCursor` value of the previous response, listed with the same sort. Omit it to get the first slice.
+                    - `size`: The number of records per slice (default: 20, max: 100).
+                    """,
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Products retrieved successfully, `nextCursor` is null on the last slice",
+                            content = @Content(schema = @Schema(implementation = CursorPageResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid cursor or sort",
+                            content = @Content(schema = @Schema(hidden = true))
+                    ),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "Internal server error",
+                            content = @Content(schema = @Schema(hidden = true))
+                    )
+            }
+    )
+    public ResponseEntity<CursorPageResponse<ProductResponse>> listProducts(
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(defaultValue = "ID") ProductSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(productService.listProducts(
+                new ProductFilter(minPrice, maxPrice, inStock), sort, cursor, size));
+    }
+
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    @Operation(
+            method = "POST",
+            summary = "Import products in bulk",
+            description = """
+                    Creates a product for every valid row of the request body, which is read while it is uploaded.\s
+                    Send `application/x-ndjson` with one product request per line, or `text/csv` with a `name,price,stock` header.\s
+                    Every row is validated like a single product request. Invalid rows are skipped and reported with their row number,\s
+                    valid rows are inserted in batches.
+                    """,
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Import finished, the response counts imported and skipped rows",
+                            content = @Content(schema = @Schema(implementation = ProductImportResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "The CSV header is missing a column",
+                            content = @Content(schema = @Schema(hidden = true))
+                    ),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "Internal server error",
+                            content = @Content(schema = @Schema(hidden = true))
+                    )
+            }
+    )
+    public ResponseEntity<ProductImportResponse> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        return ResponseEntity.ok(productImportService.importProducts(
+                body, ProductImportService.Format.of(MediaType.parseMediaType(contentType))));
+    }
+
+    @PatchMapping("/stock")
+    @Operation(
+            method = "PATCH",
+            summary = "Adjust the stock of many products",
+            description = """
+                    Adds a positive or negative `delta` to the stock of every listed product in one transaction, up to 10000 adjustments.\s
+                    Only stock is changed, name and price are left as they are. Deltas for the same product are added up.\s
+                    Adjustments that would take the stock below zero are listed in `insufficientStockIds`, missing or deleted products\s
+                    in `missingIds`, neither fails the other adjustments. The new stock of every adjusted product is returned.
+                    """,
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Stock adjusted",
+                            content = @Content(schema = @Schema(implementation = StockAdjustmentResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid request, the adjustments are missing, incomplete or too many",
+                            content = @Content(schema = @Schema(hidden = true))
+                    ),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "Internal server error",
+                            content = @Content(schema = @Schema(hidden = true))
+                    )
+            }
+    )
+    public ResponseEntity<StockAdjustmentResponse> adjustStocks(@Valid @RequestBody StockAdjustmentRequest request) {
+        return ResponseEntity.ok(productService.adjustStocks(request.adjustments()));
+    }
+
+    @GetMapping(params = "ids")
+    @Operation(
+            method = "GET",
+            summary = "Retrieve several products by their IDs",
+            description = """
+                    Fetches the products with the given comma separated `ids` in one request, in the order they are asked for.\s
+                    Ids of products that do not exist or are deleted are listed in `missingIds` instead of failing the request.\s
+                    Use the POST variant when the ids do not fit in a URL.
+                    """,
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Products retrieved successfully",
+                            content = @Content(schema = @Schema(implementation = ProductBatchResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid ids",
+                            content = @Content(schema = @Schema(hidden = true))
+                    ),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "Internal server error",
+                            content = @Content(schema = @Schema(hidden = true))
+                    )
+            }
+    )
+    public ResponseEntity<ProductBatchResponse> getProducts(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(productService.getProducts(ids));
+    }
+
+    @PostMapping("/batch")
+    @Operation(
+            method = "POST",
+            summary = "Retrieve many products by their IDs",
+            description = """
+                    Same as listing products by `ids`, for id lists that are too long for a URL.\s
+                    The request body holds up to 5000 ids, nothing is created or changed.
+                    """,
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Products retrieved successfully",
+                            content = @Content(schema = @Schema(implementation = ProductBatchResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid request, the ids are missing or there are too many of them",
+                            content = @Content(schema = @Schema(hidden = true))
+                    ),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "Internal server error",
+                            content = @Content(schema = @Schema(hidden = true))
+                    )
+            }
+    )
+    public ResponseEntity<ProductBatchResponse> getProductsInBatch(@Valid @RequestBody ProductBatchRequest request) {
+        return ResponseEntity.ok(productService.getProducts(request.ids()));
+    }
+
     @GetMapping("/{id}")
     @Operation(
             method = "GET",
             summary = "Retrieve a product by its ID",
-            description = "Fetches the details of a specific product by its unique ID.",
+            description = """
+                    Fetches the details of a specific product by its unique ID.\s
+                    Send the returned `ETag` in `If-None-Match` to get an empty 304 response while the product is unchanged.
+                    """,
             responses = {
                     @ApiResponse(
                             responseCode = "200",
                             description = "Product successfully retrieved",
                             content = @Content(schema = @Schema(implementation = ProductResponse.class))
                     ),
+                    @ApiResponse(
+                            responseCode = "304",
+                            description = "Not modified - The product still matches the `If-None-Match` ETag",
+                            content = @Content(schema = @Schema(hidden = true))
+                    ),
                     @ApiResponse(
                             responseCode = "404",
                             description = "Product not found, ensure the provided ID is valid",
@@ -79,8 +275,9 @@ public class ProductController {
                     )
             }
     )
-    public ResponseEntity<ProductResponse> getProduct(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.getProduct(id));
+    public ResponseEntity<ProductResponse> getProduct(@PathVariable Long id, WebRequest request) {
+        return ConditionalResponses.okUnlessNotModified(request, productService.getProductETag(id),
+                () -> productService.getProduct(id));
     }
 
     @PutMapping("/{id}")
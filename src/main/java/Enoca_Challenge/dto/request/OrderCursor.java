@@ -0,0 +1,37 @@
+package Enoca_Challenge.dto.request;
+
+import Enoca_Challenge.exception.custom.InvalidCursorException;
+import Enoca_Challenge.model.Order;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+public record OrderCursor(
+        LocalDateTime createdAt,
+        Long id
+) {
+    private static final String SEPARATOR = "|";
+
+    public static OrderCursor from(Order order) {
+        return new OrderCursor(order.getCreatedAt(), order.getId());
+    }
+
+    public static OrderCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = decoded.indexOf(SEPARATOR);
+            return new OrderCursor(
+                    LocalDateTime.parse(decoded.substring(0, separatorIndex)),
+                    Long.valueOf(decoded.substring(separatorIndex + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,13 @@
+package Enoca_Challenge.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record ProductBatchRequest(
+        @NotEmpty(message = "Ids are mandatory")
+        @Size(max = 5000, message = "At most 5000 ids can be fetched at once")
+        List<Long> ids
+) {
+}
@@ -0,0 +1,80 @@
+package Enoca_Challenge.dto.request;
+
+import Enoca_Challenge.dto.response.ProductResponse;
+import Enoca_Challenge.exception.custom.InvalidCursorException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last product of a listing slice: the sort it was listed with, its sort key and its id. The sort
+ * key of {@link ProductSort#ID} is the id itself, so {@code sortKey} is null for it.
+ */
+public record ProductCursor(
+        ProductSort sort,
+        String sortKey,
+        Long id
+) {
+    private static final String SEPARATOR = "|";
+
+    public static ProductCursor from(ProductResponse product, ProductSort sort) {
+        String sortKey = switch (sort) {
+            case ID -> null;
+            case PRICE_ASC, PRICE_DESC -> product.price().toString();
+            case NAME_ASC -> product.name();
+        };
+        return new ProductCursor(sort, sortKey, product.id());
+    }
+
+    /**
+     * Decodes a cursor, which is only valid for the sort the previous slice was listed with.
+     */
+    public static ProductCursor decode(String cursor, ProductSort sort) {
+        ProductCursor productCursor;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // Names may contain the separator, the sort and the id never do
+            int sortEnd = decoded.indexOf(SEPARATOR);
+            int idStart = decoded.lastIndexOf(SEPARATOR);
+            String sortKey = decoded.substring(sortEnd + 1, idStart);
+            productCursor = new ProductCursor(
+                    ProductSort.valueOf(decoded.substring(0, sortEnd)),
+                    sortKey.isEmpty() ? null : sortKey,
+                    Long.valueOf(decoded.substring(idStart + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+        if (productCursor.sort() != sort) {
+            throw new InvalidCursorException("Cursor " + cursor + " can only be used with sort " + productCursor.sort());
+        }
+        if (!isValidSortKey(sort, productCursor.sortKey())) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+        return productCursor;
+    }
+
+    // The listing query binds the sort key as it is, so it has to match the column it is compared with
+    private static boolean isValidSortKey(ProductSort sort, String sortKey) {
+        return switch (sort) {
+            case ID -> sortKey == null;
+            case PRICE_ASC, PRICE_DESC -> sortKey != null && isDecimal(sortKey);
+            case NAME_ASC -> true;
+        };
+    }
+
+    private static boolean isDecimal(String value) {
+        try {
+            new BigDecimal(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public String encode() {
+        String raw = sort + SEPARATOR + (sortKey == null ? "" : sortKey) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
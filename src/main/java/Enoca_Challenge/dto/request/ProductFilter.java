@@ -0,0 +1,10 @@
+package Enoca_Challenge.dto.request;
+
+import java.math.BigDecimal;
+
+public record ProductFilter(
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        boolean inStock
+) {
+}
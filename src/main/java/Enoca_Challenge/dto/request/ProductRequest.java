@@ -1,6 +1,8 @@
 package Enoca_Challenge.dto.request;
 
+import Enoca_Challenge.model.Money;
 import Enoca_Challenge.model.Product;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
@@ -11,12 +13,13 @@ public record ProductRequest(
         String name,
         @NotNull(message = "Price is mandatory")
         @Min(value = 1, message = "Price must be greater than 0")
+        @Digits(integer = 16, fraction = Money.SCALE, message = "Price must have at most 2 decimal places")
         BigDecimal price,
         @NotNull(message = "Stock is mandatory")
         @Min(value = 1, message = "Stock must be greater than 0")
         Integer stock
 ) {
     public static Product from(ProductRequest productRequest) {
-        return new Product(productRequest.name(), productRequest.price(), productRequest.stock());
+        return new Product(productRequest.name(), Money.of(productRequest.price()), productRequest.stock());
     }
 }
@@ -0,0 +1,11 @@
+package Enoca_Challenge.dto.request;
+
+/**
+ * Orders a product listing by one key, ties are broken by the product id in the same direction.
+ */
+public enum ProductSort {
+    ID,
+    PRICE_ASC,
+    PRICE_DESC,
+    NAME_ASC
+}
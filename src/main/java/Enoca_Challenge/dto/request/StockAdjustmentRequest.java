@@ -0,0 +1,22 @@
+package Enoca_Challenge.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record StockAdjustmentRequest(
+        @NotEmpty(message = "Adjustments are mandatory")
+        @Size(max = 10000, message = "At most 10000 adjustments can be applied at once")
+        List<@Valid @NotNull(message = "Adjustment is mandatory") StockDelta> adjustments
+) {
+    public record StockDelta(
+            @NotNull(message = "Product id is mandatory")
+            Long productId,
+            @NotNull(message = "Delta is mandatory")
+            Integer delta
+    ) {
+    }
+}
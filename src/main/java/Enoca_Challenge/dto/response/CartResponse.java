@@ -1,15 +1,15 @@
 package Enoca_Challenge.dto.response;
 
 import Enoca_Challenge.model.Cart;
+import Enoca_Challenge.model.Money;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 public record CartResponse(
         Long id,
         Long customerId,
         List<CartItemResponse> cartItems,
-        BigDecimal totalPrice
+        Money totalPrice
 ) {
     public static CartResponse from(Cart card) {
         return new CartResponse(
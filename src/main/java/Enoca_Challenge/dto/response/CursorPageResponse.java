@@ -0,0 +1,9 @@
+package Enoca_Challenge.dto.response;
+
+import java.util.List;
+
+public record CursorPageResponse<T>(
+        List<T> content,
+        String nextCursor
+) {
+}
@@ -1,14 +1,13 @@
 package Enoca_Challenge.dto.response;
 
+import Enoca_Challenge.model.Money;
 import Enoca_Challenge.model.OrderItem;
 
-import java.math.BigDecimal;
-
 public record OrderItemResponse(
         Long productId,
         String productName,
         Integer quantity,
-        BigDecimal priceAtTime
+        Money priceAtTime
 ) {
     public static OrderItemResponse from(OrderItem orderItem) {
         return new OrderItemResponse(
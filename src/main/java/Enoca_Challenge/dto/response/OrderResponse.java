@@ -1,14 +1,14 @@
 package Enoca_Challenge.dto.response;
 
+import Enoca_Challenge.model.Money;
 import Enoca_Challenge.model.Order;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 public record OrderResponse(
         Long id,
         Long customerId,
-        BigDecimal totalPrice,
+        Money totalPrice,
         String code,
         List<OrderItemResponse> orderItems
 ) {
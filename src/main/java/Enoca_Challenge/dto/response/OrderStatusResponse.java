@@ -0,0 +1,10 @@
+package Enoca_Challenge.dto.response;
+
+import Enoca_Challenge.model.OrderStatus;
+
+public record OrderStatusResponse(
+        String code,
+        OrderStatus status,
+        String message
+) {
+}
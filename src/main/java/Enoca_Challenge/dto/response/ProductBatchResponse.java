@@ -0,0 +1,9 @@
+package Enoca_Challenge.dto.response;
+
+import java.util.List;
+
+public record ProductBatchResponse(
+        List<ProductResponse> products,
+        List<Long> missingIds
+) {
+}
@@ -0,0 +1,17 @@
+package Enoca_Challenge.dto.response;
+
+import java.util.List;
+
+public record ProductImportResponse(
+        long importedRows,
+        long failedRows,
+        List<RowError> errors,
+        long durationMillis,
+        double rowsPerSecond
+) {
+    public record RowError(
+            long row,
+            String message
+    ) {
+    }
+}
@@ -1,13 +1,12 @@
 package Enoca_Challenge.dto.response;
 
+import Enoca_Challenge.model.Money;
 import Enoca_Challenge.model.Product;
 
-import java.math.BigDecimal;
-
 public record ProductResponse(
         Long id,
         String name,
-        BigDecimal price,
+        Money price,
         Integer stock
 ) {
     public static ProductResponse from(Product savedProduct) {
@@ -0,0 +1,7 @@
+package Enoca_Challenge.dto.response;
+
+public record ProductStockResponse(
+        Long productId,
+        Integer stock
+) {
+}
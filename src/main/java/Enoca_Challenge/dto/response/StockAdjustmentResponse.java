@@ -0,0 +1,10 @@
+package Enoca_Challenge.dto.response;
+
+import java.util.List;
+
+public record StockAdjustmentResponse(
+        List<ProductStockResponse> stocks,
+        List<Long> insufficientStockIds,
+        List<Long> missingIds
+) {
+}
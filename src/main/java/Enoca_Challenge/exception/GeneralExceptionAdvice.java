@@ -1,9 +1,13 @@
 package Enoca_Challenge.exception;
 
 import Enoca_Challenge.exception.custom.*;
+import Enoca_Challenge.metrics.BusinessErrorMetrics;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -16,11 +20,18 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestControllerAdvice
 public class GeneralExceptionAdvice extends ResponseEntityExceptionHandler {
     private static final Logger log = LoggerFactory.getLogger(GeneralExceptionAdvice.class);
 
+    private final BusinessErrorMetrics businessErrorMetrics;
+
+    public GeneralExceptionAdvice(BusinessErrorMetrics businessErrorMetrics) {
+        this.businessErrorMetrics = businessErrorMetrics;
+    }
+
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex,
                                                                   HttpHeaders headers,
@@ -47,6 +58,7 @@ public class GeneralExceptionAdvice extends ResponseEntityExceptionHandler {
 
     @ExceptionHandler(EmptyCartException.class)
     public ResponseEntity<ErrorResponse> handleEmptyCartException(EmptyCartException ex, HttpServletRequest req) {
+        businessErrorMetrics.record(ex);
         return new ResponseEntity<>(new ErrorResponse(
                 ex.getMessage(), HttpStatus.BAD_REQUEST, System.currentTimeMillis(), req.getRequestURI()),
                 HttpStatus.BAD_REQUEST);
@@ -54,6 +66,7 @@ public class GeneralExceptionAdvice extends ResponseEntityExceptionHandler {
 
     @ExceptionHandler(InsufficientStockException.class)
     public ResponseEntity<ErrorResponse> handleInsufficientStockException(InsufficientStockException ex, HttpServletRequest req) {
+        businessErrorMetrics.record(ex);
         return new ResponseEntity<>(new ErrorResponse
                 (ex.getMessage(), HttpStatus.BAD_REQUEST, System.currentTimeMillis(), req.getRequestURI()),
                 HttpStatus.BAD_REQUEST);
@@ -72,4 +85,59 @@ public class GeneralExceptionAdvice extends ResponseEntityExceptionHandler {
                 ex.getMessage(), HttpStatus.NOT_FOUND, System.currentTimeMillis(), req.getRequestURI()),
                 HttpStatus.NOT_FOUND);
     }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursorException(InvalidCursorException ex, HttpServletRequest req) {
+        return new ResponseEntity<>(new ErrorResponse(
+                ex.getMessage(), HttpStatus.BAD_REQUEST, System.currentTimeMillis(), req.getRequestURI()),
+                HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidImportException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidImportException(InvalidImportException ex, HttpServletRequest req) {
+        return new ResponseEntity<>(new ErrorResponse(
+                ex.getMessage(), HttpStatus.BAD_REQUEST, System.currentTimeMillis(), req.getRequestURI()),
+                HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidStockAdjustmentException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidStockAdjustmentException(InvalidStockAdjustmentException ex, HttpServletRequest req) {
+        return new ResponseEntity<>(new ErrorResponse(
+                ex.getMessage(), HttpStatus.BAD_REQUEST, System.currentTimeMillis(), req.getRequestURI()),
+                HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(OrderQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleOrderQueueFullException(OrderQueueFullException ex, HttpServletRequest req) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ErrorResponse(
+                        ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE, System.currentTimeMillis(), req.getRequestURI()));
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyConflictException(IdempotencyConflictException ex, HttpServletRequest req) {
+        return new ResponseEntity<>(new ErrorResponse(
+                ex.getMessage(), HttpStatus.CONFLICT, System.currentTimeMillis(), req.getRequestURI()),
+                HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ErrorResponse> handleConstraintViolationException(ConstraintViolationException ex, HttpServletRequest req) {
+        String message = ex.getConstraintViolations().stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+        return new ResponseEntity<>(new ErrorResponse(
+                message, HttpStatus.BAD_REQUEST, System.currentTimeMillis(), req.getRequestURI()),
+                HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex, HttpServletRequest req) {
+        return new ResponseEntity<>(new ErrorResponse(
+                "The resource was changed by another request at the same time. Please try again.", HttpStatus.CONFLICT,
+                System.currentTimeMillis(), req.getRequestURI()),
+                HttpStatus.CONFLICT);
+    }
 }
@@ -0,0 +1,7 @@
+package Enoca_Challenge.exception.custom;
+
+public class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
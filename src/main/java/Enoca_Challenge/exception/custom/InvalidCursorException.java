@@ -0,0 +1,7 @@
+package Enoca_Challenge.exception.custom;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package Enoca_Challenge.exception.custom;
+
+public class InvalidImportException extends RuntimeException {
+    public InvalidImportException(String message) {
+        super(message);
+    }
+}
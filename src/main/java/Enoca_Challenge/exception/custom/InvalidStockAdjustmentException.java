@@ -0,0 +1,7 @@
+package Enoca_Challenge.exception.custom;
+
+public class InvalidStockAdjustmentException extends RuntimeException {
+    public InvalidStockAdjustmentException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package Enoca_Challenge.exception.custom;
+
+public class OrderQueueFullException extends RuntimeException {
+    public OrderQueueFullException(String message) {
+        super(message);
+    }
+}
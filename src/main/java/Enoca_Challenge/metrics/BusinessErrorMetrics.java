@@ -0,0 +1,28 @@
+package Enoca_Challenge.metrics;
+
+import Enoca_Challenge.exception.custom.EmptyCartException;
+import Enoca_Challenge.exception.custom.InsufficientStockException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts requests and queued orders that ended in an expected business error, tagged with the exception name.
+ * Only called where such an error leaves the application, so an error is counted once however deep it was thrown.
+ */
+@Component
+public class BusinessErrorMetrics {
+
+    public static final String METRIC_NAME = "enoca.business.errors";
+
+    private final MeterRegistry meterRegistry;
+
+    public BusinessErrorMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(RuntimeException ex) {
+        if (ex instanceof InsufficientStockException || ex instanceof EmptyCartException) {
+            meterRegistry.counter(METRIC_NAME, "exception", ex.getClass().getSimpleName()).increment();
+        }
+    }
+}
@@ -1,20 +1,28 @@
 package Enoca_Challenge.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Entity
 public class Cart extends BaseEntity {
     @OneToOne
     private Customer customer;
 
+    // Keyed by product id, so a cart line is found and removed in constant time however big the cart is
     @OneToMany(cascade = CascadeType.ALL)
-    private List<CartItem> cartItems = new ArrayList<>();
+    @MapKeyColumn(name = "product_id")
+    @OrderBy("id")
+    @BatchSize(size = 100)
+    private Map<Long, CartItem> cartItems = new LinkedHashMap<>();
 
-    private BigDecimal totalPrice;
+    private Money totalPrice;
+
+    @Version
+    private Long version;
 
     public Customer getCustomer() {
         return customer;
@@ -24,19 +32,51 @@ public class Cart extends BaseEntity {
         this.customer = customer;
     }
 
-    public List<CartItem> getCartItems() {
-        return cartItems;
+    public Collection<CartItem> getCartItems() {
+        return cartItems.values();
+    }
+
+    public CartItem getCartItem(Long productId) {
+        return cartItems.get(productId);
     }
 
-    public BigDecimal  getTotalPrice() {
+    public void addCartItem(CartItem cartItem) {
+        cartItems.put(cartItem.getProduct().getId(), cartItem);
+    }
+
+    public void removeCartItem(CartItem cartItem) {
+        cartItems.remove(cartItem.getProduct().getId());
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Money getTotalPrice() {
         return totalPrice;
     }
 
-    public void setTotalPrice(BigDecimal  totalPrice) {
+    public void setTotalPrice(Money totalPrice) {
         this.totalPrice = totalPrice;
     }
 
-    public void setCartItems(List<CartItem> objects) {
-        this.cartItems = objects;
+    /**
+     * Adds {@code delta} to the total price, so a single line change never needs the other lines.
+     */
+    public void addToTotalPrice(Money delta) {
+        this.totalPrice = totalPrice == null ? delta : totalPrice.plus(delta);
+    }
+
+    /**
+     * Replaces all lines and recalculates the total price from them.
+     */
+    public void setCartItems(Collection<CartItem> objects) {
+        this.cartItems.clear();
+        Money total = Money.ZERO;
+        for (CartItem cartItem : objects) {
+            addCartItem(cartItem);
+            total = total.plus(cartItem.getPriceAtTime());
+        }
+        this.totalPrice = total;
     }
 }
@@ -1,18 +1,21 @@
 package Enoca_Challenge.model;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.ManyToOne;
-
-import java.math.BigDecimal;
+import jakarta.persistence.Version;
 
 @Entity
 public class CartItem extends BaseEntity {
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Product product;
     private Integer quantity;
-    private BigDecimal priceAtTime;
+    private Money priceAtTime;
+
+    @Version
+    private Long version;
 
-    public CartItem(Product product, Integer quantity, BigDecimal priceAtTime) {
+    public CartItem(Product product, Integer quantity, Money priceAtTime) {
         this.product = product;
         this.quantity = quantity;
         this.priceAtTime = priceAtTime;
@@ -33,11 +36,11 @@ public class CartItem extends BaseEntity {
         this.quantity = quantity;
     }
 
-    public BigDecimal getPriceAtTime() {
+    public Money getPriceAtTime() {
         return priceAtTime;
     }
 
-    public void setPriceAtTime(BigDecimal priceAtTime) {
+    public void setPriceAtTime(Money priceAtTime) {
         this.priceAtTime = priceAtTime;
     }
 
@@ -1,9 +1,17 @@
 package Enoca_Challenge.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Customer.CACHE_REGION)
 public class Customer extends BaseEntity {
+
+    public static final String CACHE_REGION = "customer";
+
     private String name;
     private String email;
 
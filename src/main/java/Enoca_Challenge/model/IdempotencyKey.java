@@ -0,0 +1,92 @@
+package Enoca_Challenge.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * A request sent with an {@code Idempotency-Key} header. Keys belong to a customer, the primary key makes sure
+ * only one request per customer and key is ever run. {@code response} holds the JSON of the first response and
+ * is null while that request is still running, {@code createdAt} is the time the running request claimed the key.
+ */
+@Entity
+@IdClass(IdempotencyKey.CustomerKey.class)
+@Table(name = "idempotency_key", indexes = @Index(name = "idx_idempotency_key_created_at", columnList = "createdAt"))
+public class IdempotencyKey {
+
+    public static final int MAX_KEY_LENGTH = 255;
+    // Letters, digits and the characters of UUIDs and common key formats, at most as long as the column
+    public static final String KEY_PATTERN = "[A-Za-z0-9._:-]{1," + MAX_KEY_LENGTH + "}";
+    public static final String KEY_MESSAGE =
+            "Idempotency key must be 1 to " + MAX_KEY_LENGTH + " letters, digits, '.', '_', ':' or '-'";
+
+    @Id
+    private Long customerId;
+
+    @Id
+    @Column(name = "idempotency_key", length = MAX_KEY_LENGTH)
+    private String key;
+
+    @Column(nullable = false, length = 1000)
+    private String fingerprint;
+
+    @Lob
+    private String response;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public String getResponse() {
+        return response;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public static class CustomerKey implements Serializable {
+
+        private Long customerId;
+        private String key;
+
+        public CustomerKey(Long customerId, String key) {
+            this.customerId = customerId;
+            this.key = key;
+        }
+
+        public CustomerKey() {
+
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CustomerKey other
+                    && Objects.equals(customerId, other.customerId) && Objects.equals(key, other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(customerId, key);
+        }
+    }
+}
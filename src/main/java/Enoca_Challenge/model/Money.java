@@ -0,0 +1,130 @@
+package Enoca_Challenge.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * An amount of money held as a whole number of minor units, cents, with {@value #SCALE} decimal places like the
+ * price columns. Arithmetic is done on a {@code long}, every operation throws {@link ArithmeticException} instead
+ * of overflowing, and amounts are only turned into {@link BigDecimal} where they are stored.
+ * <p>
+ * Amounts are written to JSON as plain numbers, for example {@code 12.50}, so the API looks the same as with
+ * {@link BigDecimal}.
+ */
+@JsonSerialize(using = Money.Serializer.class)
+@JsonDeserialize(using = Money.Deserializer.class)
+public final class Money implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private static final long MINOR_UNITS_PER_MAJOR = 100;
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Converts an exact amount, throws {@link ArithmeticException} when it has more than {@value #SCALE} decimal
+     * places or does not fit.
+     */
+    public static Money of(BigDecimal amount) {
+        return ofMinor(amount.movePointRight(SCALE).longValueExact());
+    }
+
+    public static Money of(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return other.minorUnits == 0 ? this : ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return other.minorUnits == 0 ? this : ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money times(int quantity) {
+        return quantity == 1 ? this : ofMinor(Math.multiplyExact(minorUnits, quantity));
+    }
+
+    public Money negate() {
+        return ofMinor(Math.negateExact(minorUnits));
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && minorUnits == other.minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    /**
+     * The amount with exactly {@value #SCALE} decimal places, for example {@code -0.05}.
+     */
+    @Override
+    public String toString() {
+        long major = minorUnits / MINOR_UNITS_PER_MAJOR;
+        int cents = (int) Math.abs(minorUnits % MINOR_UNITS_PER_MAJOR);
+        String sign = minorUnits < 0 && major == 0 ? "-" : "";
+        return sign + major + (cents < 10 ? ".0" : ".") + cents;
+    }
+
+    static class Serializer extends JsonSerializer<Money> {
+        @Override
+        public void serialize(Money money, JsonGenerator generator, SerializerProvider serializers) throws IOException {
+            generator.writeNumber(money.toString());
+        }
+    }
+
+    static class Deserializer extends JsonDeserializer<Money> {
+        @Override
+        public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            BigDecimal amount = parser.currentToken().isNumeric()
+                    ? parser.getDecimalValue()
+                    : new BigDecimal(parser.getValueAsString().trim());
+            try {
+                return of(amount);
+            } catch (ArithmeticException e) {
+                throw InvalidFormatException.from(parser,
+                        "Amount must have at most " + SCALE + " decimal places", amount, Money.class);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package Enoca_Challenge.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Stores every {@link Money} attribute in a decimal column with {@value Money#SCALE} decimal places, so the schema
+ * and the rows written before stay the same.
+ */
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money money) {
+        return money == null ? null : money.toBigDecimal();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal amount) {
+        // The column has the same scale, rounding never happens for values written through this converter
+        return amount == null ? null : Money.of(amount.setScale(Money.SCALE, RoundingMode.HALF_UP));
+    }
+}
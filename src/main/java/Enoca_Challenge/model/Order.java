@@ -1,22 +1,25 @@
 package Enoca_Challenge.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
-import java.math.BigDecimal;
 import java.util.List;
-import java.util.UUID;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_customer_created_at_id", columnList = "customer_id, createdAt, id"),
+        @Index(name = "uk_orders_code", columnList = "code", unique = true)
+})
 public class Order extends BaseEntity {
     @ManyToOne
     private Customer customer;
     @OneToMany(cascade = CascadeType.ALL)
+    @BatchSize(size = 100)
     private List<OrderItem> orderItems;
-    private BigDecimal totalPrice;
+    private Money totalPrice;
     private String code;
 
-    public Order(Customer customer, BigDecimal totalPrice, List<OrderItem> orderItems) {
+    public Order(Customer customer, Money totalPrice, List<OrderItem> orderItems) {
         this.customer = customer;
         this.orderItems = orderItems;
         this.totalPrice = totalPrice;
@@ -26,11 +29,6 @@ public class Order extends BaseEntity {
 
     }
 
-    @PrePersist
-    public void generateOrderCode() {
-        this.code = "ORDER-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-    }
-
     public void setCustomer(Customer customer) {
         this.customer = customer;
     }
@@ -46,7 +44,7 @@ public class Order extends BaseEntity {
         return orderItems;
     }
 
-    public BigDecimal getTotalPrice() {
+    public Money getTotalPrice() {
         return totalPrice;
     }
 
@@ -54,5 +52,9 @@ public class Order extends BaseEntity {
         return code;
     }
 
+    public void setCode(String code) {
+        this.code = code;
+    }
+
 }
 
@@ -0,0 +1,72 @@
+package Enoca_Challenge.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates order codes that are unique across nodes without asking the database. Every code packs a 64 bit
+ * number made of the milliseconds since {@link #EPOCH_MILLIS} (41 bits), the node id (10 bits) and a counter
+ * within the millisecond (13 bits), written as 13 Crockford base32 characters. Codes therefore sort by the time
+ * they were generated, and two nodes only produce the same code when they are configured with the same node id.
+ * <p>
+ * Once the counter runs out within a millisecond the following millisecond is used, and a clock that moves back
+ * keeps the generator on the last millisecond it used, so a node never hands out a code twice while it runs.
+ */
+public final class OrderCodeGenerator {
+
+    public static final String PREFIX = "ORDER-";
+    public static final int MAX_NODE_ID = (1 << 10) - 1;
+    // 2024-01-01T00:00:00Z, the 41 timestamp bits last until 2093
+    static final long EPOCH_MILLIS = 1_704_067_200_000L;
+
+    private static final int NODE_BITS = 10;
+    private static final int COUNTER_BITS = 13;
+    private static final int ENCODED_LENGTH = 13;
+    private static final byte[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PREFIX_BYTES = PREFIX.getBytes(StandardCharsets.US_ASCII);
+
+    private final long node;
+    private final LongSupplier clock;
+    // Last millisecond used, shifted left by COUNTER_BITS, plus the counter within it
+    private final AtomicLong state = new AtomicLong();
+
+    public OrderCodeGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    OrderCodeGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ", was " + nodeId);
+        }
+        this.node = nodeId;
+        this.clock = clock;
+    }
+
+    public String next() {
+        long sequence = nextSequence();
+        long value = (sequence >>> COUNTER_BITS) << (NODE_BITS + COUNTER_BITS)
+                | node << COUNTER_BITS
+                | sequence & ((1L << COUNTER_BITS) - 1);
+
+        byte[] code = new byte[PREFIX_BYTES.length + ENCODED_LENGTH];
+        System.arraycopy(PREFIX_BYTES, 0, code, 0, PREFIX_BYTES.length);
+        for (int i = code.length - 1; i >= PREFIX_BYTES.length; i--) {
+            code[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(code, StandardCharsets.US_ASCII);
+    }
+
+    private long nextSequence() {
+        long millis = clock.getAsLong() - EPOCH_MILLIS;
+        while (true) {
+            long previous = state.get();
+            // A counter overflow carries into the millisecond bits, which borrows the next millisecond
+            long next = millis > previous >>> COUNTER_BITS ? millis << COUNTER_BITS : previous + 1;
+            if (state.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+}
@@ -3,17 +3,15 @@ package Enoca_Challenge.model;
 import jakarta.persistence.Entity;
 import jakarta.persistence.ManyToOne;
 
-import java.math.BigDecimal;
-
 @Entity
 public class OrderItem extends BaseEntity {
     @ManyToOne
     private Product product;
     private String productName;
     private Integer quantity;
-    private BigDecimal priceAtTime;
+    private Money priceAtTime;
 
-    public OrderItem(Product product,String productName, Integer quantity, BigDecimal priceAtTime) {
+    public OrderItem(Product product,String productName, Integer quantity, Money priceAtTime) {
         this.product = product;
         this.productName = productName;
         this.quantity = quantity;
@@ -37,7 +35,7 @@ public class OrderItem extends BaseEntity {
     }
 
 
-    public BigDecimal getPriceAtTime() {
+    public Money getPriceAtTime() {
         return priceAtTime;
     }
 
@@ -0,0 +1,8 @@
+package Enoca_Challenge.model;
+
+public enum OrderStatus {
+    PENDING,
+    CONFIRMED,
+    REJECTED,
+    FAILED
+}
@@ -0,0 +1,32 @@
+package Enoca_Challenge.model;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Sequence based identifier generator using the pooled-lo optimizer, so that one sequence call hands out a
+ * whole block of ids and inserts can be sent to the database in JDBC batches. Every table gets its own
+ * {@code <table>_seq} sequence. The block size is read from
+ * the {@value #ALLOCATION_SIZE_SETTING} setting and defaults to {@value #DEFAULT_ALLOCATION_SIZE}.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String ALLOCATION_SIZE_SETTING = "enoca.id.allocation-size";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        Integer allocationSize = serviceRegistry.getService(ConfigurationService.class)
+                .getSetting(ALLOCATION_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_ALLOCATION_SIZE);
+        parameters.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+        parameters.setProperty(OPT_PARAM, "pooled-lo");
+        parameters.setProperty(SEQUENCE_PARAM, parameters.getProperty(TABLE) + "_seq");
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
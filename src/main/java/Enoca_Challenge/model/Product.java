@@ -1,18 +1,36 @@
 package Enoca_Challenge.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
-
-import java.math.BigDecimal;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Product.CACHE_REGION)
+@Table(indexes = {
+        // Listings only read products that are not deleted, so every listing index starts with is_deleted
+        @Index(name = "idx_product_deleted_id", columnList = "isDeleted, id"),
+        @Index(name = "idx_product_deleted_price_id", columnList = "isDeleted, price, id"),
+        @Index(name = "idx_product_deleted_name_id", columnList = "isDeleted, name, id")
+})
 public class Product extends BaseEntity {
 
+    public static final String CACHE_REGION = "product";
+
     private String name;
-    private BigDecimal  price;
+    private Money price;
     private Integer stock;
     private boolean isDeleted = false;
 
-    public Product(String name, BigDecimal  price, Integer stock) {
+    // Also raised by the stock updates written with plain JDBC, so every change of the row gets a new version
+    @Version
+    private Long version;
+
+    public Product(String name, Money price, Integer stock) {
         this.name = name;
         this.price = price;
         this.stock = stock;
@@ -30,11 +48,11 @@ public class Product extends BaseEntity {
         this.name = name;
     }
 
-    public BigDecimal getPrice() {
+    public Money getPrice() {
         return price;
     }
 
-    public void setPrice(BigDecimal  price) {
+    public void setPrice(Money price) {
         this.price = price;
     }
 
@@ -53,4 +71,8 @@ public class Product extends BaseEntity {
     public void setDeleted(boolean deleted) {
         isDeleted = deleted;
     }
+
+    public Long getVersion() {
+        return version;
+    }
 }
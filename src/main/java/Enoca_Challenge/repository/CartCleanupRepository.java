@@ -0,0 +1,23 @@
+package Enoca_Challenge.repository;
+
+import java.time.LocalDateTime;
+
+public interface CartCleanupRepository {
+
+    /**
+     * Deletes up to {@code batchSize} carts that were not changed since {@code idleSince}, together with their
+     * links to cart items. The carts are locked and their version is increased first, so a cart changed at the
+     * same time is either kept or makes the concurrent change fail with an optimistic locking conflict. The cart
+     * items of the deleted carts are left behind as orphans for {@link #deleteOrphanCartItems(int)}.
+     *
+     * @return the number of deleted carts
+     */
+    int deleteIdleCarts(LocalDateTime idleSince, int batchSize);
+
+    /**
+     * Deletes up to {@code batchSize} cart items that no cart links to anymore.
+     *
+     * @return the number of deleted cart items
+     */
+    int deleteOrphanCartItems(int batchSize);
+}
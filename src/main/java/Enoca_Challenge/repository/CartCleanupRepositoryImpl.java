@@ -0,0 +1,66 @@
+package Enoca_Challenge.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+class CartCleanupRepositoryImpl implements CartCleanupRepository {
+
+    private static final String SELECT_IDLE_CARTS_SQL =
+            "SELECT id FROM cart WHERE updated_at < :idleSince ORDER BY id FETCH FIRST :batchSize ROWS ONLY";
+    private static final String LOCK_IDLE_CARTS_SQL =
+            "UPDATE cart SET version = version + 1 WHERE id IN (:ids) AND updated_at < :idleSince";
+    private static final String SELECT_LOCKED_CARTS_SQL =
+            "SELECT id FROM cart WHERE id IN (:ids) AND updated_at < :idleSince";
+    private static final String DELETE_CART_LINKS_SQL =
+            "DELETE FROM cart_cart_items WHERE cart_id IN (:ids)";
+    private static final String DELETE_CARTS_SQL =
+            "DELETE FROM cart WHERE id IN (:ids)";
+    private static final String ORPHAN_CONDITION =
+            "NOT EXISTS (SELECT 1 FROM cart_cart_items link WHERE link.cart_items_id = cart_item.id)";
+    private static final String SELECT_ORPHAN_CART_ITEMS_SQL =
+            "SELECT id FROM cart_item WHERE " + ORPHAN_CONDITION + " ORDER BY id FETCH FIRST :batchSize ROWS ONLY";
+    private static final String DELETE_ORPHAN_CART_ITEMS_SQL =
+            "DELETE FROM cart_item WHERE id IN (:ids) AND " + ORPHAN_CONDITION;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    CartCleanupRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int deleteIdleCarts(LocalDateTime idleSince, int batchSize) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("idleSince", idleSince)
+                .addValue("batchSize", batchSize);
+        List<Long> candidateIds = jdbcTemplate.queryForList(SELECT_IDLE_CARTS_SQL, parameters, Long.class);
+        if (candidateIds.isEmpty()) {
+            return 0;
+        }
+
+        // Carts changed since they were selected are skipped, the others stay locked until the transaction ends
+        parameters.addValue("ids", candidateIds);
+        jdbcTemplate.update(LOCK_IDLE_CARTS_SQL, parameters);
+        List<Long> lockedIds = jdbcTemplate.queryForList(SELECT_LOCKED_CARTS_SQL, parameters, Long.class);
+        if (lockedIds.isEmpty()) {
+            return 0;
+        }
+
+        MapSqlParameterSource locked = new MapSqlParameterSource("ids", lockedIds);
+        jdbcTemplate.update(DELETE_CART_LINKS_SQL, locked);
+        return jdbcTemplate.update(DELETE_CARTS_SQL, locked);
+    }
+
+    @Override
+    public int deleteOrphanCartItems(int batchSize) {
+        List<Long> orphanIds = jdbcTemplate.queryForList(SELECT_ORPHAN_CART_ITEMS_SQL,
+                new MapSqlParameterSource("batchSize", batchSize), Long.class);
+        if (orphanIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(DELETE_ORPHAN_CART_ITEMS_SQL, new MapSqlParameterSource("ids", orphanIds));
+    }
+}
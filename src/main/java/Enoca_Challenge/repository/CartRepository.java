@@ -1,10 +1,42 @@
 package Enoca_Challenge.repository;
 
 import Enoca_Challenge.model.Cart;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface CartRepository extends JpaRepository<Cart, Long> {
+public interface CartRepository extends JpaRepository<Cart, Long>, CartCleanupRepository {
+    @EntityGraph(attributePaths = {"customer", "cartItems", "cartItems.product"})
     Optional<Cart> findByCustomerId(Long customerId);
+
+    @Query("select c.version from Cart c where c.customer.id = :customerId")
+    Optional<Long> findVersionByCustomerId(@Param("customerId") Long customerId);
+
+    @EntityGraph(attributePaths = {"customer", "cartItems"})
+    List<Cart> findByCustomerIdIn(Collection<Long> customerIds);
+
+    /**
+     * Looks up the customer and its cart, with the cart items and their products, in a single statement.
+     * The result is empty when the customer does not exist.
+     */
+    default Optional<CustomerCart> findCustomerCart(Long customerId) {
+        return findCustomerCartRows(customerId).stream().findFirst();
+    }
+
+    // One row is returned per cart item, all of them pointing to the same cart instance
+    @Query("""
+            select new Enoca_Challenge.repository.CustomerCart(cu.id, c)
+            from Customer cu
+            left join Cart c on c.customer = cu
+            left join fetch c.customer
+            left join fetch c.cartItems i
+            left join fetch i.product
+            where cu.id = :customerId
+            """)
+    List<CustomerCart> findCustomerCartRows(@Param("customerId") Long customerId);
 }
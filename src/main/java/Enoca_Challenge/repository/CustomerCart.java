@@ -0,0 +1,12 @@
+package Enoca_Challenge.repository;
+
+import Enoca_Challenge.model.Cart;
+
+/**
+ * Result of looking up a customer together with its cart, {@code cart} is null when the customer has no cart yet.
+ */
+public record CustomerCart(
+        Long customerId,
+        Cart cart
+) {
+}
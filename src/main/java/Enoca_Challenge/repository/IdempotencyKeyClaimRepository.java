@@ -0,0 +1,49 @@
+package Enoca_Challenge.repository;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyKeyClaimRepository {
+
+    /**
+     * Inserts the key of a request that is about to run, committed right away so that concurrent requests with
+     * the same key see it. A key still stored from an earlier request is left as it is. {@code claimedAt} is stored
+     * as the creation time and identifies the claim in {@link #complete} and {@link #release}.
+     *
+     * @return {@code true} when the key was inserted, {@code false} when the customer already used it
+     */
+    boolean claim(Long customerId, String key, String fingerprint, LocalDateTime claimedAt);
+
+    /**
+     * Stores the response of a request that finished, retries with the same key replay it from now on. Nothing
+     * is stored when the claim was abandoned and taken over by another request in the meantime.
+     */
+    void complete(Long customerId, String key, LocalDateTime claimedAt, String response);
+
+    /**
+     * Deletes the key of a request that failed, unless it already has a response or was taken over by another
+     * request, so that it can be retried.
+     */
+    void release(Long customerId, String key, LocalDateTime claimedAt);
+
+    /**
+     * Deletes the given key when it has no response yet and was claimed before {@code claimedBefore}, the request
+     * that claimed it is taken to have died.
+     *
+     * @return {@code true} when the key was deleted
+     */
+    boolean deleteIfAbandoned(Long customerId, String key, LocalDateTime claimedBefore);
+
+    /**
+     * Deletes the given key when it was created before {@code createdBefore}, whether it has a response or not.
+     *
+     * @return {@code true} when the key was deleted
+     */
+    boolean deleteIfExpired(Long customerId, String key, LocalDateTime createdBefore);
+
+    /**
+     * Deletes at most {@code batchSize} keys created before {@code createdBefore}.
+     *
+     * @return the number of deleted keys
+     */
+    int deleteExpired(LocalDateTime createdBefore, int batchSize);
+}
@@ -0,0 +1,94 @@
+package Enoca_Challenge.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+class IdempotencyKeyClaimRepositoryImpl implements IdempotencyKeyClaimRepository {
+
+    private static final String KEY_CONDITION = "customer_id = :customerId AND idempotency_key = :key";
+    private static final String INSERT_KEY_SQL =
+            "INSERT INTO idempotency_key (customer_id, idempotency_key, fingerprint, created_at) "
+                    + "VALUES (:customerId, :key, :fingerprint, :createdAt)";
+    private static final String CLAIM_CONDITION = KEY_CONDITION + " AND created_at = :claimedAt AND response IS NULL";
+    private static final String COMPLETE_KEY_SQL =
+            "UPDATE idempotency_key SET response = :response WHERE " + CLAIM_CONDITION;
+    private static final String RELEASE_KEY_SQL =
+            "DELETE FROM idempotency_key WHERE " + CLAIM_CONDITION;
+    private static final String DELETE_ABANDONED_KEY_SQL =
+            "DELETE FROM idempotency_key WHERE " + KEY_CONDITION + " AND response IS NULL AND created_at < :claimedBefore";
+    private static final String DELETE_EXPIRED_KEY_SQL =
+            "DELETE FROM idempotency_key WHERE " + KEY_CONDITION + " AND created_at < :createdBefore";
+    private static final String SELECT_EXPIRED_KEYS_SQL =
+            "SELECT customer_id, idempotency_key FROM idempotency_key WHERE created_at < :createdBefore "
+                    + "ORDER BY created_at FETCH FIRST :batchSize ROWS ONLY";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    IdempotencyKeyClaimRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean claim(Long customerId, String key, String fingerprint, LocalDateTime claimedAt) {
+        MapSqlParameterSource parameters = keyParameters(customerId, key)
+                .addValue("fingerprint", fingerprint)
+                .addValue("createdAt", claimedAt);
+        try {
+            return jdbcTemplate.update(INSERT_KEY_SQL, parameters) == 1;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void complete(Long customerId, String key, LocalDateTime claimedAt, String response) {
+        jdbcTemplate.update(COMPLETE_KEY_SQL, keyParameters(customerId, key)
+                .addValue("claimedAt", claimedAt)
+                .addValue("response", response));
+    }
+
+    @Override
+    public void release(Long customerId, String key, LocalDateTime claimedAt) {
+        jdbcTemplate.update(RELEASE_KEY_SQL, keyParameters(customerId, key).addValue("claimedAt", claimedAt));
+    }
+
+    @Override
+    public boolean deleteIfAbandoned(Long customerId, String key, LocalDateTime claimedBefore) {
+        return jdbcTemplate.update(DELETE_ABANDONED_KEY_SQL,
+                keyParameters(customerId, key).addValue("claimedBefore", claimedBefore)) == 1;
+    }
+
+    @Override
+    public boolean deleteIfExpired(Long customerId, String key, LocalDateTime createdBefore) {
+        return jdbcTemplate.update(DELETE_EXPIRED_KEY_SQL,
+                keyParameters(customerId, key).addValue("createdBefore", createdBefore)) == 1;
+    }
+
+    @Override
+    public int deleteExpired(LocalDateTime createdBefore, int batchSize) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("createdBefore", createdBefore)
+                .addValue("batchSize", batchSize);
+        List<MapSqlParameterSource> expired = jdbcTemplate.query(SELECT_EXPIRED_KEYS_SQL, parameters,
+                (rs, rowNum) -> keyParameters(rs.getLong("customer_id"), rs.getString("idempotency_key"))
+                        .addValue("createdBefore", createdBefore));
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        int deleted = 0;
+        for (int count : jdbcTemplate.batchUpdate(DELETE_EXPIRED_KEY_SQL, expired.toArray(MapSqlParameterSource[]::new))) {
+            deleted += count;
+        }
+        return deleted;
+    }
+
+    private static MapSqlParameterSource keyParameters(Long customerId, String key) {
+        return new MapSqlParameterSource()
+                .addValue("customerId", customerId)
+                .addValue("key", key);
+    }
+}
@@ -0,0 +1,20 @@
+package Enoca_Challenge.repository;
+
+import Enoca_Challenge.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, IdempotencyKey.CustomerKey>,
+        IdempotencyKeyClaimRepository {
+
+    // Read as a projection, so every lookup sees the committed row instead of an entity kept by the session
+    @Query("""
+            select new Enoca_Challenge.repository.StoredIdempotencyKey(k.fingerprint, k.response, k.createdAt)
+            from IdempotencyKey k
+            where k.customerId = :customerId and k.key = :key
+            """)
+    Optional<StoredIdempotencyKey> findStoredKey(@Param("customerId") Long customerId, @Param("key") String key);
+}
@@ -1,14 +1,62 @@
 package Enoca_Challenge.repository;
 
 import Enoca_Challenge.model.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    String EXPORT_FETCH_SIZE = "500";
+
+    @EntityGraph(attributePaths = "customer")
     Page<Order> findAllByCustomerId(Long customerId, Pageable pageable);
 
+    @EntityGraph(attributePaths = "customer")
+    List<Order> findByCustomerIdOrderByCreatedAtDescIdDesc(Long customerId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "customer")
+    @Query("""
+            select o from Order o
+            where o.customer.id = :customerId
+              and (o.createdAt < :createdAt or (o.createdAt = :createdAt and o.id < :id))
+            order by o.createdAt desc, o.id desc
+            """)
+    List<Order> findByCustomerIdBefore(@Param("customerId") Long customerId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
+    @EntityGraph(attributePaths = {"customer", "orderItems", "orderItems.product"})
     Optional<Order> findByCode(String orderCode);
+
+    /**
+     * Reads the orders of a customer oldest first with a forward-only cursor, {@value #EXPORT_FETCH_SIZE} rows per
+     * round trip. The rows of one order are adjacent, so every order is complete once the stream moves past it.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select o from Order o
+            join fetch o.customer
+            left join fetch o.orderItems i
+            left join fetch i.product
+            where o.customer.id = :customerId
+            order by o.createdAt, o.id
+            """)
+    Stream<Order> streamByCustomerId(@Param("customerId") Long customerId);
+
+    boolean existsByCode(String orderCode);
 }
@@ -0,0 +1,21 @@
+package Enoca_Challenge.repository;
+
+import Enoca_Challenge.dto.request.ProductCursor;
+import Enoca_Challenge.dto.request.ProductFilter;
+import Enoca_Challenge.dto.request.ProductSort;
+import Enoca_Challenge.dto.response.ProductResponse;
+
+import java.util.List;
+
+public interface ProductListingRepository {
+
+    /**
+     * Lists products that are not deleted and match {@code filter}, ordered by {@code sort}. Only the listed columns
+     * are read, no {@code Product} entity is created. The next slice starts right after {@code after}, comparing the
+     * sort key and id together, so every slice costs an index seek no matter how deep it is.
+     *
+     * @param after the last product of the previous slice, or null for the first slice
+     * @return at most {@code limit} products
+     */
+    List<ProductResponse> findProducts(ProductFilter filter, ProductSort sort, ProductCursor after, int limit);
+}
@@ -0,0 +1,78 @@
+package Enoca_Challenge.repository;
+
+import Enoca_Challenge.dto.request.ProductCursor;
+import Enoca_Challenge.dto.request.ProductFilter;
+import Enoca_Challenge.dto.request.ProductSort;
+import Enoca_Challenge.dto.response.ProductResponse;
+import Enoca_Challenge.model.MoneyConverter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+class ProductListingRepositoryImpl implements ProductListingRepository {
+
+    private static final MoneyConverter MONEY_CONVERTER = new MoneyConverter();
+    private static final RowMapper<ProductResponse> PRODUCT_ROW_MAPPER = (resultSet, rowNum) -> new ProductResponse(
+            resultSet.getLong("id"),
+            resultSet.getString("name"),
+            MONEY_CONVERTER.convertToEntityAttribute(resultSet.getBigDecimal("price")),
+            resultSet.getInt("stock"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    ProductListingRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<ProductResponse> findProducts(ProductFilter filter, ProductSort sort, ProductCursor after, int limit) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("limit", limit);
+        // Starts with the leading column of every product listing index
+        StringBuilder sql = new StringBuilder("SELECT id, name, price, stock FROM product WHERE is_deleted = false");
+        if (filter.minPrice() != null) {
+            sql.append(" AND price >= :minPrice");
+            parameters.addValue("minPrice", filter.minPrice());
+        }
+        if (filter.maxPrice() != null) {
+            sql.append(" AND price <= :maxPrice");
+            parameters.addValue("maxPrice", filter.maxPrice());
+        }
+        if (filter.inStock()) {
+            sql.append(" AND stock > 0");
+        }
+
+        String sortColumn = switch (sort) {
+            case ID -> null;
+            case PRICE_ASC, PRICE_DESC -> "price";
+            case NAME_ASC -> "name";
+        };
+        String direction = sort == ProductSort.PRICE_DESC ? "DESC" : "ASC";
+        if (after != null) {
+            String comparison = sort == ProductSort.PRICE_DESC ? "<" : ">";
+            parameters.addValue("afterId", after.id());
+            if (sortColumn == null) {
+                sql.append(" AND id ").append(comparison).append(" :afterId");
+            } else {
+                sql.append(" AND (").append(sortColumn).append(", id) ").append(comparison).append(" (:afterKey, :afterId)");
+                parameters.addValue("afterKey", sortKey(sort, after));
+            }
+        }
+
+        sql.append(" ORDER BY ");
+        if (sortColumn != null) {
+            sql.append(sortColumn).append(' ').append(direction).append(", ");
+        }
+        sql.append("id ").append(direction).append(" FETCH FIRST :limit ROWS ONLY");
+        return jdbcTemplate.query(sql.toString(), parameters, PRODUCT_ROW_MAPPER);
+    }
+
+    private static Object sortKey(ProductSort sort, ProductCursor after) {
+        if (sort == ProductSort.NAME_ASC) {
+            return after.sortKey() == null ? "" : after.sortKey();
+        }
+        return new BigDecimal(after.sortKey());
+    }
+}
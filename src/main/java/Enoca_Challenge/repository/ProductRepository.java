@@ -1,10 +1,47 @@
 package Enoca_Challenge.repository;
 
+import Enoca_Challenge.dto.response.ProductResponse;
+import Enoca_Challenge.dto.response.ProductStockResponse;
 import Enoca_Challenge.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface ProductRepository extends JpaRepository<Product, Long>{
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductStockRepository,
+        ProductListingRepository {
+
+    String ACTIVE_PRODUCT_QUERY_REGION = "product-active-by-id";
+
+    /**
+     * Results are kept in the query cache, Hibernate drops them whenever a product is changed through an entity.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ACTIVE_PRODUCT_QUERY_REGION)
+    })
     Optional<Product> findByIdAndIsDeletedFalse(Long id);
+
+    @Query("select p.version from Product p where p.id = :id and p.isDeleted = false")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("""
+            select new Enoca_Challenge.dto.response.ProductResponse(p.id, p.name, p.price, p.stock)
+            from Product p
+            where p.id in :ids and p.isDeleted = false
+            """)
+    List<ProductResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            select new Enoca_Challenge.dto.response.ProductStockResponse(p.id, p.stock)
+            from Product p
+            where p.id in :ids and p.isDeleted = false
+            """)
+    List<ProductStockResponse> findStocksByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,26 @@
+package Enoca_Challenge.repository;
+
+import java.util.Map;
+
+public interface ProductStockRepository {
+
+    /**
+     * Decreases the stock of every given product with one guarded UPDATE per product, sent to the
+     * database as a single JDBC batch. A product is only updated when it is not deleted and still has
+     * enough stock, so the returned row count for that product is {@code 0} otherwise.
+     *
+     * @param quantitiesByProductId quantity to take from each product
+     * @return the updated row count of each product, in ascending product id order
+     */
+    int[] decreaseStocks(Map<Long, Integer> quantitiesByProductId);
+
+    /**
+     * Adds the delta of every given product to its stock with one guarded UPDATE per product, sent to the
+     * database as a single JDBC batch. A product is only updated when it is not deleted and its stock does
+     * not drop below zero, so the returned row count for that product is {@code 0} otherwise.
+     *
+     * @param deltasByProductId stock change of each product, negative to take stock out
+     * @return the updated row count of each product, in ascending product id order
+     */
+    int[] adjustStocks(Map<Long, Integer> deltasByProductId);
+}
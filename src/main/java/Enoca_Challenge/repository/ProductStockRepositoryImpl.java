@@ -0,0 +1,42 @@
+package Enoca_Challenge.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    private static final String DECREASE_STOCK_SQL =
+            "UPDATE product SET stock = stock - ?, version = version + 1 WHERE id = ? AND stock >= ? AND is_deleted = false";
+
+    // The guard adds up in BIGINT, a stock that would overflow the column is rejected like one that would go negative
+    private static final String ADJUST_STOCK_SQL =
+            "UPDATE product SET stock = stock + ?, version = version + 1 "
+                    + "WHERE id = ? AND CAST(stock AS BIGINT) + ? BETWEEN 0 AND 2147483647 AND is_deleted = false";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    ProductStockRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] decreaseStocks(Map<Long, Integer> quantitiesByProductId) {
+        // Rows are always locked in id order so that two concurrent orders can not deadlock each other
+        List<Object[]> batchArgs = new TreeMap<>(quantitiesByProductId).entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey(), entry.getValue()})
+                .toList();
+        return jdbcTemplate.batchUpdate(DECREASE_STOCK_SQL, batchArgs);
+    }
+
+    @Override
+    public int[] adjustStocks(Map<Long, Integer> deltasByProductId) {
+        // Same lock order as decreaseStocks, so a sync and concurrent orders can not deadlock each other
+        List<Object[]> batchArgs = new TreeMap<>(deltasByProductId).entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey(), entry.getValue()})
+                .toList();
+        return jdbcTemplate.batchUpdate(ADJUST_STOCK_SQL, batchArgs);
+    }
+}
@@ -0,0 +1,13 @@
+package Enoca_Challenge.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * A stored idempotency key, {@code response} is null while the first request with the key is still running.
+ */
+public record StoredIdempotencyKey(
+        String fingerprint,
+        String response,
+        LocalDateTime createdAt
+) {
+}
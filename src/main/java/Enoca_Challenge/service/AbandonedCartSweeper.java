@@ -0,0 +1,83 @@
+package Enoca_Challenge.service;
+
+import Enoca_Challenge.repository.CartRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.IntSupplier;
+
+/**
+ * Deletes carts nobody changed for {@code enoca.cart.sweeper.ttl} and the cart items no cart links to anymore.
+ * Rows are deleted {@code batch-size} at a time, each batch in a short transaction of its own, so a sweep never
+ * keeps many rows locked while carts are being used.
+ */
+@Service
+@ConditionalOnProperty(name = "enoca.cart.sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class AbandonedCartSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(AbandonedCartSweeper.class);
+
+    private final CartRepository cartRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final int batchSize;
+    private final Counter reclaimedCarts;
+    private final Counter reclaimedCartItems;
+
+    public AbandonedCartSweeper(CartRepository cartRepository, PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${enoca.cart.sweeper.ttl}") Duration ttl,
+                                @Value("${enoca.cart.sweeper.batch-size}") int batchSize) {
+        this.cartRepository = cartRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.batchSize = batchSize;
+        this.reclaimedCarts = reclaimedRows(meterRegistry, "cart");
+        this.reclaimedCartItems = reclaimedRows(meterRegistry, "cart_item");
+    }
+
+    @Scheduled(cron = "${enoca.cart.sweeper.cron}")
+    public SweepResult sweep() {
+        LocalDateTime idleSince = LocalDateTime.now().minus(ttl);
+        log.info("Sweeping carts not changed since {}", idleSince);
+
+        int deletedCarts = deleteInBatches(() -> cartRepository.deleteIdleCarts(idleSince, batchSize));
+        reclaimedCarts.increment(deletedCarts);
+        // Runs after the carts, so the items of the carts deleted above are purged in the same sweep
+        int deletedCartItems = deleteInBatches(() -> cartRepository.deleteOrphanCartItems(batchSize));
+        reclaimedCartItems.increment(deletedCartItems);
+
+        log.info("Cart sweep reclaimed {} carts and {} cart items", deletedCarts, deletedCartItems);
+        return new SweepResult(deletedCarts, deletedCartItems);
+    }
+
+    private int deleteInBatches(IntSupplier batch) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> batch.getAsInt());
+            total += deleted;
+        } while (deleted == batchSize);
+        return total;
+    }
+
+    private static Counter reclaimedRows(MeterRegistry meterRegistry, String table) {
+        return Counter.builder("enoca.cart.sweeper.reclaimed")
+                .description("Rows deleted by the abandoned cart sweeper")
+                .tag("table", table)
+                .register(meterRegistry);
+    }
+
+    public record SweepResult(int deletedCarts, int deletedCartItems) {
+    }
+}
@@ -0,0 +1,158 @@
+package Enoca_Challenge.service;
+
+import Enoca_Challenge.cache.BoundedCache;
+import Enoca_Challenge.dto.response.OrderStatusResponse;
+import Enoca_Challenge.exception.custom.CustomerNotFoundException;
+import Enoca_Challenge.exception.custom.EmptyCartException;
+import Enoca_Challenge.exception.custom.InsufficientStockException;
+import Enoca_Challenge.exception.custom.OrderNotFoundException;
+import Enoca_Challenge.exception.custom.OrderQueueFullException;
+import Enoca_Challenge.exception.custom.ProductNotFoundException;
+import Enoca_Challenge.metrics.BusinessErrorMetrics;
+import Enoca_Challenge.model.OrderCodeGenerator;
+import Enoca_Challenge.model.OrderStatus;
+import Enoca_Challenge.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accepts orders without placing them on the request thread. Checkouts are queued in a bounded in-process queue
+ * and placed by a fixed number of workers, a full queue is reported to the caller instead of blocking it.
+ * <p>
+ * Queued orders stay tracked until a worker has finished them, there are never more of them than the queue and the
+ * workers hold. Only the outcome of finished orders is kept in a bounded cache.
+ */
+@Service
+public class AsyncOrderService {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncOrderService.class);
+
+    private static final String FAILED_MESSAGE = "The order could not be placed. Please try again.";
+
+    private final OrderService orderService;
+    private final CustomerService customerService;
+    private final OrderRepository orderRepository;
+    private final OrderCodeGenerator orderCodeGenerator;
+    private final BusinessErrorMetrics businessErrorMetrics;
+    private final ExecutorService executor;
+    private final Map<String, OrderStatusResponse> pendingStatuses = new ConcurrentHashMap<>();
+    private final BoundedCache<String, OrderStatusResponse> statuses;
+
+    @Autowired
+    public AsyncOrderService(OrderService orderService, CustomerService customerService, OrderRepository orderRepository,
+                             OrderCodeGenerator orderCodeGenerator, BusinessErrorMetrics businessErrorMetrics,
+                             @Value("${enoca.orders.async.workers}") int workers,
+                             @Value("${enoca.orders.async.queue-capacity}") int queueCapacity,
+                             @Value("${enoca.orders.async.status-max-size}") int statusMaxSize,
+                             @Value("${enoca.orders.async.status-ttl}") Duration statusTtl) {
+        this(orderService, customerService, orderRepository, orderCodeGenerator, businessErrorMetrics,
+                newWorkerPool(workers, queueCapacity), new BoundedCache<>(statusMaxSize, statusTtl));
+    }
+
+    AsyncOrderService(OrderService orderService, CustomerService customerService, OrderRepository orderRepository,
+                      OrderCodeGenerator orderCodeGenerator, BusinessErrorMetrics businessErrorMetrics,
+                      ExecutorService executor,
+                      BoundedCache<String, OrderStatusResponse> statuses) {
+        this.orderService = orderService;
+        this.customerService = customerService;
+        this.orderRepository = orderRepository;
+        this.orderCodeGenerator = orderCodeGenerator;
+        this.businessErrorMetrics = businessErrorMetrics;
+        this.executor = executor;
+        this.statuses = statuses;
+    }
+
+    public OrderStatusResponse submitOrder(Long customerId) {
+        customerService.validateCustomerExists(customerId);
+        String orderCode = orderCodeGenerator.next();
+        log.info("Queueing order {} for customer with ID: {}", orderCode, customerId);
+        OrderStatusResponse pending = new OrderStatusResponse(orderCode, OrderStatus.PENDING, null);
+        pendingStatuses.put(orderCode, pending);
+        try {
+            executor.execute(() -> processOrder(customerId, orderCode));
+        } catch (RejectedExecutionException e) {
+            pendingStatuses.remove(orderCode);
+            log.error("Order queue is full, order for customer with ID: {} is not accepted", customerId);
+            throw new OrderQueueFullException("Too many orders are being placed right now. Please try again shortly.");
+        }
+        return pending;
+    }
+
+    public OrderStatusResponse getOrderStatus(String orderCode) {
+        log.debug("Fetching status of order with code: {}", orderCode);
+        // The outcome is stored before the pending entry is removed, so one of the two is always found
+        OrderStatusResponse status = pendingStatuses.get(orderCode);
+        if (status == null) {
+            status = statuses.get(orderCode);
+        }
+        if (status != null) {
+            return status;
+        }
+        // Outcomes are only kept for a while, an order that is no longer tracked but was saved is confirmed
+        if (orderRepository.existsByCode(orderCode)) {
+            return new OrderStatusResponse(orderCode, OrderStatus.CONFIRMED, null);
+        }
+        log.error("Order with code: {} not found", orderCode);
+        throw new OrderNotFoundException("Order with code " + orderCode + " not found.");
+    }
+
+    private void processOrder(Long customerId, String orderCode) {
+        try {
+            placeOrder(customerId, orderCode);
+        } finally {
+            pendingStatuses.remove(orderCode);
+        }
+    }
+
+    private void placeOrder(Long customerId, String orderCode) {
+        try {
+            orderService.placeOrder(customerId, orderCode);
+            statuses.put(orderCode, new OrderStatusResponse(orderCode, OrderStatus.CONFIRMED, null));
+            log.info("Queued order {} confirmed for customer with ID: {}", orderCode, customerId);
+        } catch (EmptyCartException | InsufficientStockException | ProductNotFoundException
+                 | CustomerNotFoundException e) {
+            // Business rejections carry messages written for the client, retrying the same cart does not help
+            businessErrorMetrics.record(e);
+            statuses.put(orderCode, new OrderStatusResponse(orderCode, OrderStatus.REJECTED, e.getMessage()));
+            log.error("Queued order {} rejected for customer with ID: {}: {}", orderCode, customerId, e.getMessage());
+        } catch (RuntimeException e) {
+            // Anything else is a fault on our side, its message may hold SQL or constraint names
+            statuses.put(orderCode, new OrderStatusResponse(orderCode, OrderStatus.FAILED, FAILED_MESSAGE));
+            log.error("Queued order {} failed for customer with ID: {}", orderCode, customerId, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.error("Order workers did not finish in time, {} queued orders are dropped", executor.shutdownNow().size());
+        }
+    }
+
+    private static ExecutorService newWorkerPool(int workers, int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "order-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
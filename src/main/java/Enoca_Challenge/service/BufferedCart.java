@@ -0,0 +1,202 @@
+package Enoca_Challenge.service;
+
+import Enoca_Challenge.dto.response.CartItemResponse;
+import Enoca_Challenge.dto.response.CartResponse;
+import Enoca_Challenge.model.Cart;
+import Enoca_Challenge.model.CartItem;
+import Enoca_Challenge.model.Money;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The in-memory copy of one customer's cart kept by {@link WriteBehindCartService}. Not thread safe, callers lock
+ * the instance while they read or change it.
+ */
+final class BufferedCart {
+
+    private final Long customerId;
+    private final Map<Long, Line> lines = new LinkedHashMap<>();
+    private Long cartId;
+    // Version of the cart row this copy is based on, null until the row exists
+    private Long version;
+    private boolean created;
+    private Money totalPrice = Money.ZERO;
+    private long changeCount;
+    private long flushedChangeCount;
+    private long lastAccessNanos;
+    private boolean evicted;
+    private boolean writing;
+
+    BufferedCart(Long customerId, Cart cart) {
+        this.customerId = customerId;
+        if (cart != null) {
+            this.cartId = cart.getId();
+            this.version = cart.getVersion();
+            this.created = true;
+            this.totalPrice = cart.getTotalPrice() == null ? Money.ZERO : cart.getTotalPrice();
+            for (CartItem cartItem : cart.getCartItems()) {
+                lines.put(cartItem.getProduct().getId(), new Line(cartItem.getId(), cartItem.getQuantity(),
+                        cartItem.getPriceAtTime(), cartItem.getProduct().getPrice()));
+            }
+        }
+        touch();
+    }
+
+    Long customerId() {
+        return customerId;
+    }
+
+    Line line(Long productId) {
+        return lines.get(productId);
+    }
+
+    void putLine(Long productId, Line line, Money priceChange) {
+        lines.put(productId, line);
+        totalPrice = totalPrice.plus(priceChange);
+        changed();
+    }
+
+    void removeLine(Long productId) {
+        Line line = lines.remove(productId);
+        totalPrice = totalPrice.minus(line.priceAtTime());
+        changed();
+    }
+
+    void clear() {
+        lines.clear();
+        totalPrice = Money.ZERO;
+        changed();
+    }
+
+    /**
+     * A cart exists once it was saved or asked for, a customer without one has nothing to reduce or empty.
+     */
+    boolean exists() {
+        return created;
+    }
+
+    void create() {
+        if (!created) {
+            created = true;
+            changed();
+        }
+    }
+
+    boolean isDirty() {
+        return changeCount != flushedChangeCount;
+    }
+
+    boolean isEvicted() {
+        return evicted;
+    }
+
+    void evict() {
+        evicted = true;
+    }
+
+    void restore() {
+        evicted = false;
+    }
+
+    boolean isWriting() {
+        return writing;
+    }
+
+    /**
+     * Marks the cart as being written by a flush that runs without holding the lock of the instance.
+     */
+    void startWrite() {
+        writing = true;
+    }
+
+    void finishWrite() {
+        writing = false;
+        notifyAll();
+    }
+
+    /**
+     * Waits until a running flush has written the cart, so no other write of it can overtake that flush.
+     */
+    void awaitWrite() {
+        while (writing) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while the cart of customer " + customerId + " was written", e);
+            }
+        }
+    }
+
+    void touch() {
+        lastAccessNanos = System.nanoTime();
+    }
+
+    boolean isIdleSince(long nanos) {
+        return lastAccessNanos - nanos < 0;
+    }
+
+    /**
+     * The row version this copy is based on plus the changes made to it since, unique for every state of the copy.
+     */
+    String eTag() {
+        return "cart-" + version + "." + changeCount;
+    }
+
+    Snapshot snapshot() {
+        return new Snapshot(customerId, version, new LinkedHashMap<>(lines), totalPrice, changeCount);
+    }
+
+    /**
+     * Records that {@code snapshot} is now stored as {@code cart}, changes made after the snapshot stay dirty.
+     */
+    void flushed(Snapshot snapshot, Cart cart) {
+        cartId = cart.getId();
+        version = cart.getVersion();
+        flushedChangeCount = Math.max(flushedChangeCount, snapshot.changeCount());
+        for (CartItem cartItem : cart.getCartItems()) {
+            Long productId = cartItem.getProduct().getId();
+            Line line = lines.get(productId);
+            if (line != null && line.itemId() == null) {
+                lines.put(productId, new Line(cartItem.getId(), line.quantity(), line.priceAtTime(), line.unitPrice()));
+            }
+        }
+    }
+
+    CartResponse toResponse() {
+        return new CartResponse(
+                cartId,
+                customerId,
+                lines.entrySet().stream()
+                        .map(entry -> new CartItemResponse(entry.getValue().itemId(), entry.getKey(), entry.getValue().quantity()))
+                        .toList(),
+                totalPrice
+        );
+    }
+
+    private void changed() {
+        changeCount++;
+    }
+
+    /**
+     * One cart line, {@code itemId} is null until the line is flushed for the first time. {@code unitPrice} is the
+     * product price last seen for the line, used when a unit is taken out again.
+     */
+    record Line(Long itemId, int quantity, Money priceAtTime, Money unitPrice) {
+
+        static Line empty(Money unitPrice) {
+            return new Line(null, 0, Money.ZERO, unitPrice);
+        }
+
+        Line plus(Money unitPrice, int quantityChange) {
+            return new Line(itemId, quantity + quantityChange, priceAtTime.plus(unitPrice.times(quantityChange)), unitPrice);
+        }
+    }
+
+    /**
+     * The state of a cart at one point in time, written by a flush while the cart itself keeps changing.
+     */
+    record Snapshot(Long customerId, Long version, Map<Long, Line> lines, Money totalPrice, long changeCount) {
+    }
+}
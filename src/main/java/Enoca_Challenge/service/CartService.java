@@ -1,20 +1,30 @@
 package Enoca_Challenge.service;
 
+import Enoca_Challenge.concurrency.RetryOnConflict;
+import Enoca_Challenge.concurrency.SerializedPerCustomer;
 import Enoca_Challenge.dto.request.CartItemRequest;
 import Enoca_Challenge.dto.response.CartResponse;
+import Enoca_Challenge.dto.response.ProductResponse;
+import Enoca_Challenge.exception.custom.CustomerNotFoundException;
 import Enoca_Challenge.exception.custom.EmptyCartException;
 import Enoca_Challenge.exception.custom.InsufficientStockException;
 import Enoca_Challenge.exception.custom.ProductNotFoundException;
 import Enoca_Challenge.model.Cart;
 import Enoca_Challenge.model.CartItem;
+import Enoca_Challenge.model.Money;
 import Enoca_Challenge.model.Product;
 import Enoca_Challenge.repository.CartItemRepository;
 import Enoca_Challenge.repository.CartRepository;
+import Enoca_Challenge.repository.CustomerCart;
+import io.micrometer.core.annotation.Timed;
+import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.util.Optional;
 
 @Service
 public class CartService {
@@ -33,6 +43,8 @@ public class CartService {
         this.cartItemRepository = cartItemRepository;
     }
 
+    @Timed("enoca.service")
+    @RetryOnConflict
     public CartResponse getCart(Long id) {
         log.info("Fetching cart for customer with ID: {}", id);
         Cart cart = getCartOrCreate(id);
@@ -40,26 +52,41 @@ public class CartService {
         return CartResponse.from(cart);
     }
 
+    /**
+     * Returns the ETag of the customer's cart from its version alone, empty when the customer has no cart yet.
+     */
+    public Optional<String> getCartETag(Long customerId) {
+        return cartRepository.findVersionByCustomerId(customerId).map(version -> "cart-" + version);
+    }
+
+    @Timed("enoca.service")
+    @SerializedPerCustomer
+    @RetryOnConflict
+    @Transactional
     public CartResponse addProductToCart(CartItemRequest request) {
         log.info("Adding product with ID: {} to cart for customer with ID: {}", request.productId(), request.customerId());
         Cart cart = getCartOrCreate(request.customerId());
-        Product product = productService.getProductById(request.productId());
+        ProductResponse product = productService.getCachedProduct(request.productId());
 
-        CartItem existingItem = cart.getCartItems().stream()
-                .filter(item -> item.getProduct().getId().equals(request.productId()))
-                .findFirst()
-                .orElseGet(() -> createNewCardItems(cart, product));
+        CartItem existingItem = cart.getCartItem(request.productId());
+        if (existingItem == null) {
+            existingItem = createNewCardItems(cart, productService.getProductReference(product.id()));
+        }
 
-        updateCartItemPrice(existingItem, product, 1);
+        Money priceChange = updateCartItemPrice(existingItem, product.price(), 1);
 
-        checkIfStockIsAvailable(cart);
+        checkIfStockIsAvailable(existingItem, product);
 
-        updateCartTotal(cart);
+        cart.addToTotalPrice(priceChange);
         log.info("Product with ID: {} added to cart successfully for customer with ID: {}", request.productId(), request.customerId());
 
         return CartResponse.from(cartRepository.save(cart));
     }
 
+    @Timed("enoca.service")
+    @SerializedPerCustomer
+    @RetryOnConflict
+    @Transactional
     public CartResponse reduceProductQuantity(CartItemRequest request) {
         log.info("Removing product with ID: {} from cart for customer with ID: {}", request.productId(), request.customerId());
         Cart cart = findByCustomerId(request.customerId());
@@ -67,105 +94,123 @@ public class CartService {
         CartItem cartItem = getCartItemByProductId(cart, request.productId());
 
         if (cartItem.getQuantity() > 1) {
-            updateCartItemPrice(cartItem, cartItem.getProduct(), -1);
+            cart.addToTotalPrice(updateCartItemPrice(cartItem, cartItem.getProduct().getPrice(), -1));
         } else {
-            cart.getCartItems().remove(cartItem);
+            removeCartItem(cart, cartItem);
             cartItemRepository.delete(cartItem);
         }
 
-        updateCartTotal(cart);
         log.info("Product with ID: {} removed from cart successfully for customer with ID: {}", request.productId(), request.customerId());
 
         return CartResponse.from(cartRepository.save(cart));
     }
 
+    @Timed("enoca.service")
+    @SerializedPerCustomer
+    @RetryOnConflict
+    @Transactional
     public void emptyCart(Long customerId) {
         log.info("Emptying cart for customer with ID: {}", customerId);
         Cart cart = findByCustomerId(customerId);
         cart.getCartItems().clear();
-        cart.setTotalPrice(BigDecimal.ZERO);
+        cart.setTotalPrice(Money.ZERO);
         cartRepository.save(cart);
         log.info("Cart emptied successfully for customer with ID: {}", customerId);
     }
 
+    @Timed("enoca.service")
+    @SerializedPerCustomer
+    @RetryOnConflict
+    @Transactional
     public void removeItemFromCart(CartItemRequest request) {
         log.info("Removing item with product ID: {} from cart for customer with ID: {}", request.productId(), request.customerId());
         Cart cart = findByCustomerId(request.customerId());
 
         CartItem cartItem = getCartItemByProductId(cart, request.productId());
 
-        cart.getCartItems().remove(cartItem);
+        removeCartItem(cart, cartItem);
+        cartItemRepository.delete(cartItem);
 
-        updateCartTotal(cart);
         log.info("Item with product ID: {} removed successfully from cart for customer with ID: {}", request.productId(), request.customerId());
     }
 
-    private void checkIfStockIsAvailable(Cart cart) {
-        log.debug("Checking stock availability for cart items...");
-        for (CartItem cartItem : cart.getCartItems()) {
-            Product product = cartItem.getProduct();
-
-            if (product.getStock() < cartItem.getQuantity()) {
-                log.error("Insufficient stock for product: {}", product.getName());
-                throw new InsufficientStockException("Not enough stock for product: " + product.getName());
-            }
+    private void checkIfStockIsAvailable(CartItem cartItem, ProductResponse product) {
+        log.debug("Checking stock availability for product ID: {}", product.id());
+        if (product.stock() < cartItem.getQuantity()) {
+            log.error("Insufficient stock for product: {}", product.name());
+            throw new InsufficientStockException("Not enough stock for product: " + product.name());
         }
         log.info("Stock check completed successfully.");
     }
 
     private CartItem getCartItemByProductId(Cart cart, Long productId) {
         log.debug("Fetching cart item with product ID: {} from cart.", productId);
-        return cart.getCartItems().stream()
-                .filter(item -> item.getProduct().getId().equals(productId))
-                .findFirst()
+        return Optional.ofNullable(cart.getCartItem(productId))
                 .orElseThrow(() -> {
                     log.error("Product with ID: {} not found in cart!", productId);
                     return new ProductNotFoundException("Product not found in your cart!");
                 });
     }
 
-    private void updateCartItemPrice(CartItem cartItem, Product product, int quantityChange) {
-        log.debug("Updating cart item price for product ID: {}. Quantity change: {}", product.getId(), quantityChange);
+    private Money updateCartItemPrice(CartItem cartItem, Money unitPrice, int quantityChange) {
+        log.debug("Updating cart item price for product ID: {}. Quantity change: {}", cartItem.getProduct().getId(), quantityChange);
+        Money priceChange = unitPrice.times(quantityChange);
         cartItem.setQuantity(cartItem.getQuantity() + quantityChange);
-        cartItem.setPriceAtTime(cartItem.getPriceAtTime().add(product.getPrice().multiply(BigDecimal.valueOf(quantityChange))));
-        log.debug("Cart item price updated successfully for product ID: {}", product.getId());
+        cartItem.setPriceAtTime(cartItem.getPriceAtTime().plus(priceChange));
+        log.debug("Cart item price updated successfully for product ID: {}", cartItem.getProduct().getId());
+        return priceChange;
     }
 
-    private void updateCartTotal(Cart cart) {
-        log.debug("Updating total price for cart...");
-        BigDecimal total = cart.getCartItems().stream()
-                .map(CartItem::getPriceAtTime)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        cart.setTotalPrice(total);
-        log.debug("Cart total price updated successfully. Total price: {}", total);
+    private void removeCartItem(Cart cart, CartItem cartItem) {
+        cart.removeCartItem(cartItem);
+        cart.addToTotalPrice(cartItem.getPriceAtTime().negate());
+        log.debug("Cart total price updated successfully. Total price: {}", cart.getTotalPrice());
     }
 
     private Cart getCartOrCreate(Long customerId) {
         log.debug("Fetching or creating cart for customer with ID: {}", customerId);
-        customerService.validateCustomerExists(customerId);
-        return cartRepository.findByCustomerId(customerId)
-                .orElseGet(() -> {
-                    log.info("No existing cart found. Creating a new cart for customer with ID: {}", customerId);
-                    return createNewCart(customerId);
-                });
+        Cart cart = findCustomerCart(customerId).cart();
+        if (cart == null) {
+            log.info("No existing cart found. Creating a new cart for customer with ID: {}", customerId);
+            return createNewCart(customerId);
+        }
+        return cart;
     }
 
+    /**
+     * Inserts the cart right away, so a cart another request created for the same customer in the meantime fails
+     * here on the unique customer column. That failure is reported as a conflict, and the retry finds that cart.
+     */
     private Cart createNewCart(Long customerId) {
         log.info("Creating new cart for customer with ID: {}", customerId);
         Cart cart = new Cart();
-        cart.setCustomer(customerService.getCustomerById(customerId));
-        Cart savedCart = cartRepository.save(cart);
+        cart.setCustomer(customerService.getCustomerReference(customerId));
+        Cart savedCart;
+        try {
+            savedCart = cartRepository.saveAndFlush(cart);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Cart for customer with ID: {} was created by another request", customerId);
+            throw new OptimisticLockingFailureException("Cart for customer with ID: " + customerId + " was created by another request", e);
+        }
         log.info("New cart created successfully for customer with ID: {}", customerId);
         return savedCart;
     }
 
     protected Cart findByCustomerId(Long customerId) {
         log.debug("Fetching cart for customer with ID: {}", customerId);
-        customerService.validateCustomerExists(customerId);
-        return cartRepository.findByCustomerId(customerId)
+        Cart cart = findCustomerCart(customerId).cart();
+        if (cart == null) {
+            log.error("Empty cart for customer with ID: {}", customerId);
+            throw new EmptyCartException("Cart is empty for customer with ID: " + customerId);
+        }
+        return cart;
+    }
+
+    protected CustomerCart findCustomerCart(Long customerId) {
+        return cartRepository.findCustomerCart(customerId)
                 .orElseThrow(() -> {
-                    log.error("Empty cart for customer with ID: {}", customerId);
-                    return new EmptyCartException("Cart is empty for customer with ID: " + customerId);
+                    log.error("Customer with id {} not found", customerId);
+                    return new CustomerNotFoundException("Customer with id " + customerId + " not found");
                 });
     }
 
@@ -174,9 +219,9 @@ public class CartService {
         CartItem newItem = new CartItem(
                 product,
                 0,
-                BigDecimal.ZERO
+                Money.ZERO
         );
-        cart.getCartItems().add(newItem);
+        cart.addCartItem(newItem);
         log.info("New cart item created successfully for product ID: {}", product.getId());
         return newItem;
     }
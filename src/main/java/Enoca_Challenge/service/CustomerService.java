@@ -37,6 +37,10 @@ public class CustomerService {
         );
     }
 
+    protected Customer getCustomerReference(Long id) {
+        return customerRepository.getReferenceById(id);
+    }
+
     protected void validateCustomerExists(Long id) {
         if (findCustomer(id).isEmpty()) {
             log.error("Customer with id {} not found", id);
@@ -0,0 +1,135 @@
+package Enoca_Challenge.service;
+
+import Enoca_Challenge.exception.custom.IdempotencyConflictException;
+import Enoca_Challenge.repository.IdempotencyKeyRepository;
+import Enoca_Challenge.repository.StoredIdempotencyKey;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Replays the response of a request sent again with the same {@code Idempotency-Key} header instead of
+ * running it twice. Keys belong to the customer that sent them and are stored in the {@code idempotency_key}
+ * table together with the first response, so every instance sees them for {@code enoca.idempotency.ttl} no
+ * matter how many keys arrive in the meantime. A key whose request is still running after
+ * {@code enoca.idempotency.lease} is taken to belong to a request that died, and the next retry runs again.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration lease;
+    private final int purgeBatchSize;
+
+    public IdempotencyService(IdempotencyKeyRepository idempotencyKeyRepository, ObjectMapper objectMapper,
+                              @Value("${enoca.idempotency.ttl}") Duration ttl,
+                              @Value("${enoca.idempotency.lease}") Duration lease,
+                              @Value("${enoca.idempotency.purge.batch-size}") int purgeBatchSize) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.lease = lease;
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    /**
+     * Runs {@code action} once per customer and key and returns its result, or the result of the first run when
+     * the customer has sent the key before. {@code fingerprint} identifies the request, reusing a key for a
+     * different request or while the first run is still in progress is rejected. Failed runs are forgotten so
+     * they can be retried.
+     */
+    public <T> T execute(Long customerId, String idempotencyKey, String fingerprint, Class<T> responseType,
+                         Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+
+        // The claim time tells this claim apart from a later one that took the key over after the lease
+        LocalDateTime claimedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        while (!idempotencyKeyRepository.claim(customerId, idempotencyKey, fingerprint, claimedAt)) {
+            Optional<StoredIdempotencyKey> stored = idempotencyKeyRepository.findStoredKey(customerId, idempotencyKey);
+            if (stored.isEmpty()) {
+                // The first run failed or the key expired since the claim, so it is free again
+                continue;
+            }
+            StoredIdempotencyKey existing = stored.get();
+            LocalDateTime expiredBefore = LocalDateTime.now().minus(ttl);
+            if (existing.createdAt().isBefore(expiredBefore)) {
+                idempotencyKeyRepository.deleteIfExpired(customerId, idempotencyKey, expiredBefore);
+                continue;
+            }
+            if (!existing.fingerprint().equals(fingerprint)) {
+                log.error("Idempotency key: {} of customer with ID: {} was reused for a different request", idempotencyKey, customerId);
+                throw new IdempotencyConflictException("Idempotency key " + idempotencyKey + " was already used for a different request.");
+            }
+            if (existing.response() == null) {
+                LocalDateTime abandonedBefore = LocalDateTime.now().minus(lease);
+                if (existing.createdAt().isBefore(abandonedBefore)) {
+                    log.warn("Request with idempotency key: {} of customer with ID: {} did not finish within {}, running it again",
+                            idempotencyKey, customerId, lease);
+                    idempotencyKeyRepository.deleteIfAbandoned(customerId, idempotencyKey, abandonedBefore);
+                    continue;
+                }
+                log.error("Request with idempotency key: {} of customer with ID: {} is still in progress", idempotencyKey, customerId);
+                throw new IdempotencyConflictException("Request with idempotency key " + idempotencyKey + " is still in progress.");
+            }
+            log.info("Replaying response for idempotency key: {} of customer with ID: {}", idempotencyKey, customerId);
+            return readResponse(existing.response(), responseType);
+        }
+
+        T response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            idempotencyKeyRepository.release(customerId, idempotencyKey, claimedAt);
+            throw e;
+        }
+        // A response that can not be stored keeps the key in progress, retries are rejected until the lease runs out
+        idempotencyKeyRepository.complete(customerId, idempotencyKey, claimedAt, writeResponse(response));
+        return response;
+    }
+
+    @Scheduled(cron = "${enoca.idempotency.purge.cron}")
+    public int purgeExpiredKeys() {
+        LocalDateTime expiredBefore = LocalDateTime.now().minus(ttl);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = idempotencyKeyRepository.deleteExpired(expiredBefore, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        log.info("Purged {} idempotency keys created before {}", total, expiredBefore);
+        return total;
+    }
+
+    private String writeResponse(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response could not be stored for replay", e);
+        }
+    }
+
+    private <T> T readResponse(String response, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(response, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response could not be replayed", e);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package Enoca_Challenge.service;
+
+import Enoca_Challenge.dto.response.OrderItemResponse;
+import Enoca_Challenge.dto.response.OrderResponse;
+import Enoca_Challenge.model.Order;
+import Enoca_Challenge.model.OrderItem;
+import Enoca_Challenge.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+/**
+ * Writes the complete order history of a customer while it is read from the database. Orders are read through a
+ * forward-only cursor and detached once they are written, so memory use does not grow with the number of orders.
+ */
+@Service
+public class OrderExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderExportService.class);
+    private static final String CSV_HEADER = "order_id,order_code,customer_id,total_price,product_id,product_name,quantity,price_at_time\n";
+
+    private final OrderRepository orderRepository;
+    private final CustomerService customerService;
+    private final EntityManager entityManager;
+    private final ObjectWriter orderWriter;
+    private final TransactionTemplate transactionTemplate;
+
+    public OrderExportService(OrderRepository orderRepository, CustomerService customerService,
+                              EntityManager entityManager, ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.customerService = customerService;
+        this.entityManager = entityManager;
+        // The generator is flushed when its buffer is full, not after every order
+        this.orderWriter = objectMapper.writerFor(OrderResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Checks that the customer exists and returns a body that writes their orders, oldest first, once the response
+     * is being sent. The body reads the orders in a transaction of its own, as it runs after the request thread is
+     * released.
+     */
+    public StreamingResponseBody exportOrders(Long customerId, Format format) {
+        customerService.validateCustomerExists(customerId);
+        return outputStream -> {
+            log.info("Exporting orders of customer with ID: {} as {}", customerId, format);
+            long exported = transactionTemplate.execute(status -> {
+                try (Stream<Order> orders = orderRepository.streamByCustomerId(customerId)) {
+                    return switch (format) {
+                        case NDJSON -> writeNdjson(orders, outputStream);
+                        case CSV -> writeCsv(orders, outputStream);
+                    };
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.info("Exported {} orders of customer with ID: {}", exported, customerId);
+        };
+    }
+
+    private long writeNdjson(Stream<Order> orders, OutputStream outputStream) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = orderWriter.createGenerator(outputStream)) {
+            // Every order is a line of its own, the stream of the response is closed by the container
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            for (Order order : (Iterable<Order>) orders::iterator) {
+                orderWriter.writeValue(generator, OrderResponse.from(order));
+                generator.writeRaw('\n');
+                detach(order);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long writeCsv(Stream<Order> orders, OutputStream outputStream) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        for (Order order : (Iterable<Order>) orders::iterator) {
+            OrderResponse response = OrderResponse.from(order);
+            if (response.orderItems().isEmpty()) {
+                writeCsvRow(writer, response, null);
+            }
+            for (OrderItemResponse orderItem : response.orderItems()) {
+                writeCsvRow(writer, response, orderItem);
+            }
+            detach(order);
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    // One row per order item, an order without items is a single row with empty item columns
+    private static void writeCsvRow(Writer writer, OrderResponse order, OrderItemResponse orderItem) throws IOException {
+        writer.write(csvValue(order.id()));
+        writer.write(',');
+        writer.write(csvValue(order.code()));
+        writer.write(',');
+        writer.write(csvValue(order.customerId()));
+        writer.write(',');
+        writer.write(csvValue(order.totalPrice()));
+        writer.write(',');
+        writer.write(orderItem == null ? "" : csvValue(orderItem.productId()));
+        writer.write(',');
+        writer.write(orderItem == null ? "" : csvValue(orderItem.productName()));
+        writer.write(',');
+        writer.write(orderItem == null ? "" : csvValue(orderItem.quantity()));
+        writer.write(',');
+        writer.write(orderItem == null ? "" : csvValue(orderItem.priceAtTime()));
+        writer.write('\n');
+    }
+
+    static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    // Detaching cascades to the order items, the products they refer to are detached separately
+    private void detach(Order order) {
+        for (OrderItem orderItem : order.getOrderItems()) {
+            if (orderItem.getProduct() != null) {
+                entityManager.detach(orderItem.getProduct());
+            }
+        }
+        entityManager.detach(order);
+    }
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String mediaType;
+        private final String fileExtension;
+
+        Format(String mediaType, String fileExtension) {
+            this.mediaType = mediaType;
+            this.fileExtension = fileExtension;
+        }
+
+        public String mediaType() {
+            return mediaType;
+        }
+
+        public String fileExtension() {
+            return fileExtension;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package Enoca_Challenge.service;
+
+import Enoca_Challenge.cache.BoundedCache;
+import Enoca_Challenge.dto.response.OrderResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+
+import java.util.function.Function;
+
+/**
+ * Keeps placed orders as the JSON bytes of their {@link OrderResponse}. Orders never change once they are placed,
+ * so a cached order is written to the response as is, without loading the order or serializing it again.
+ */
+@Service
+public class OrderResponseCache {
+
+    private final BoundedCache<String, SerializedOrder> orderCache;
+    private final ObjectMapper objectMapper;
+
+    public OrderResponseCache(BoundedCache<String, SerializedOrder> orderCache, ObjectMapper objectMapper) {
+        this.orderCache = orderCache;
+        this.objectMapper = objectMapper;
+    }
+
+    public SerializedOrder get(String orderCode, Function<String, OrderResponse> loader) {
+        return orderCache.get(orderCode, code -> serialize(loader.apply(code)));
+    }
+
+    public void put(OrderResponse order) {
+        orderCache.put(order.code(), serialize(order));
+    }
+
+    private SerializedOrder serialize(OrderResponse order) {
+        try {
+            return new SerializedOrder(objectMapper.writeValueAsBytes(order));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Order " + order.code() + " could not be serialized", e);
+        }
+    }
+
+    /**
+     * The JSON body of an order.
+     */
+    public record SerializedOrder(byte[] body) {
+    }
+}
@@ -1,5 +1,8 @@
 package Enoca_Challenge.service;
 
+import Enoca_Challenge.concurrency.SerializedPerCustomer;
+import Enoca_Challenge.dto.request.OrderCursor;
+import Enoca_Challenge.dto.response.CursorPageResponse;
 import Enoca_Challenge.dto.response.OrderResponse;
 import Enoca_Challenge.exception.custom.EmptyCartException;
 import Enoca_Challenge.exception.custom.InsufficientStockException;
@@ -7,34 +10,59 @@ import Enoca_Challenge.exception.custom.OrderNotFoundException;
 import Enoca_Challenge.exception.custom.ProductNotFoundException;
 import Enoca_Challenge.model.*;
 import Enoca_Challenge.repository.OrderRepository;
+import Enoca_Challenge.service.OrderResponseCache.SerializedOrder;
 import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class OrderService {
 
     private static final Logger log = LoggerFactory.getLogger(OrderService.class);
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
 
     private final OrderRepository orderRepository;
     private final CartService cartService;
     private final ProductService productService;
     private final CustomerService customerService;
+    private final OrderResponseCache orderResponseCache;
+    private final OrderCodeGenerator orderCodeGenerator;
 
     public OrderService(OrderRepository orderRepository, CartService cartService, ProductService productService,
-                        CustomerService customerService) {
+                        CustomerService customerService, OrderResponseCache orderResponseCache,
+                        OrderCodeGenerator orderCodeGenerator) {
         this.orderRepository = orderRepository;
         this.cartService = cartService;
         this.productService = productService;
         this.customerService = customerService;
+        this.orderResponseCache = orderResponseCache;
+        this.orderCodeGenerator = orderCodeGenerator;
     }
 
     @Transactional
+    @Timed("enoca.service")
+    @SerializedPerCustomer
     public OrderResponse placeOrder(Long customerId) {
-        log.info("Placing order for customer with ID: {}", customerId);
+        return placeOrder(customerId, orderCodeGenerator.next());
+    }
+
+    @Transactional
+    @Timed("enoca.service")
+    @SerializedPerCustomer
+    public OrderResponse placeOrder(Long customerId, String orderCode) {
+        log.info("Placing order {} for customer with ID: {}", orderCode, customerId);
 
         Cart cart = cartService.findByCustomerId(customerId);
 
@@ -50,6 +78,9 @@ public class OrderService {
         // Check if the product is in stock
         checkIfStockIsAvailable(cart);
 
+        // Reserve the stock, the whole order is rolled back if any product runs out in the meantime
+        reduceStock(cart);
+
         // Create the order
         Order order = new Order(
                 cart.getCustomer(),
@@ -63,14 +94,18 @@ public class OrderService {
                         ))
                         .toList()
         );
+        order.setCode(orderCode);
 
         log.info("Order created successfully for customer with ID: {}", customerId);
         orderRepository.save(order);
         cartService.emptyCart(customerId);
 
-        return OrderResponse.from(order);
+        OrderResponse response = OrderResponse.from(order);
+        cacheAfterCommit(response);
+        return response;
     }
 
+    @Timed("enoca.service")
     public Page<OrderResponse> getAllOrdersForCustomer(Long customerId, Pageable pageable) {
         customerService.validateCustomerExists(customerId);
         log.info("Fetching all orders for customer with ID: {}", customerId);
@@ -78,6 +113,28 @@ public class OrderService {
                 .map(OrderResponse::from);
     }
 
+    @Timed("enoca.service")
+    public CursorPageResponse<OrderResponse> getOrdersForCustomerByCursor(Long customerId, String cursor, int size) {
+        OrderCursor orderCursor = cursor == null ? null : OrderCursor.decode(cursor);
+        customerService.validateCustomerExists(customerId);
+        log.info("Fetching orders for customer with ID: {} after cursor: {}", customerId, orderCursor);
+
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        // One extra row tells whether there is a next page, so no count query is needed
+        Pageable limit = PageRequest.ofSize(pageSize + 1);
+        List<Order> orders = orderCursor == null
+                ? orderRepository.findByCustomerIdOrderByCreatedAtDescIdDesc(customerId, limit)
+                : orderRepository.findByCustomerIdBefore(customerId, orderCursor.createdAt(), orderCursor.id(), limit);
+
+        String nextCursor = null;
+        if (orders.size() > pageSize) {
+            orders = orders.subList(0, pageSize);
+            nextCursor = OrderCursor.from(orders.get(pageSize - 1)).encode();
+        }
+        return new CursorPageResponse<>(orders.stream().map(OrderResponse::from).toList(), nextCursor);
+    }
+
+    @Timed("enoca.service")
     public OrderResponse getOrderForCode(String orderCode) {
         log.info("Fetching order with code: {}", orderCode);
         Order order = orderRepository.findByCode(orderCode)
@@ -88,6 +145,36 @@ public class OrderService {
         return OrderResponse.from(order);
     }
 
+    /**
+     * Returns the ETag of an order from its code alone. Orders never change once they are placed, so the tag is
+     * known without looking the order up.
+     */
+    public Optional<String> getOrderETag(String orderCode) {
+        return Optional.of("order-" + orderCode);
+    }
+
+    /**
+     * Returns the order as cached JSON, loading and serializing it only when it is not cached yet.
+     */
+    @Timed("enoca.service")
+    public SerializedOrder getSerializedOrder(String orderCode) {
+        return orderResponseCache.get(orderCode, this::getOrderForCode);
+    }
+
+    // An order rolled back after it was built must never be served from the cache
+    private void cacheAfterCommit(OrderResponse response) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            orderResponseCache.put(response);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                orderResponseCache.put(response);
+            }
+        });
+    }
+
     private void checkIfProductIsDeleted(Cart cart) {
         for (CartItem cartItem : cart.getCartItems()) {
             if (cartItem.getProduct().isDeleted()) {
@@ -106,8 +193,14 @@ public class OrderService {
                 log.error("Not enough stock for product: {}", product.getName());
                 throw new InsufficientStockException("Not enough stock for product: " + product.getName());
             }
-            productService.reduceProductStock(product, cartItem.getQuantity());
-            log.info("Stock reduced for product: {} by quantity: {}", product.getName(), cartItem.getQuantity());
         }
     }
+
+    private void reduceStock(Cart cart) {
+        Map<Long, Integer> quantitiesByProductId = new LinkedHashMap<>();
+        for (CartItem cartItem : cart.getCartItems()) {
+            quantitiesByProductId.merge(cartItem.getProduct().getId(), cartItem.getQuantity(), Integer::sum);
+        }
+        productService.reduceProductStock(quantitiesByProductId);
+    }
 }
@@ -0,0 +1,241 @@
+package Enoca_Challenge.service;
+
+import Enoca_Challenge.dto.request.ProductRequest;
+import Enoca_Challenge.dto.response.ProductImportResponse;
+import Enoca_Challenge.dto.response.ProductImportResponse.RowError;
+import Enoca_Challenge.exception.custom.InvalidImportException;
+import Enoca_Challenge.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports products from an NDJSON or CSV stream. The stream is read one line at a time and every row is validated
+ * like a single {@link ProductRequest}. Valid rows are inserted {@code batch-size} at a time, each batch in a
+ * transaction of its own sent as one JDBC batch, and the persistence context is cleared after every batch, so an
+ * import of any size keeps only one batch in memory.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+    private static final List<String> CSV_COLUMNS = List.of("name", "price", "stock");
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader productReader;
+    private final Validator validator;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public ProductImportService(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper, Validator validator,
+                                @Value("${enoca.products.import.batch-size}") int batchSize,
+                                @Value("${enoca.products.import.max-reported-errors}") int maxReportedErrors) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productReader = objectMapper.readerFor(ProductRequest.class);
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Imports every valid row of {@code input}. Invalid rows are counted and skipped, the first
+     * {@code max-reported-errors} of them are returned with their row number and the reason.
+     */
+    public ProductImportResponse importProducts(InputStream input, Format format) throws IOException {
+        log.info("Importing products from {}", format);
+        long startedAt = System.nanoTime();
+        ImportProgress progress = new ImportProgress();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        int[] csvColumns = format == Format.CSV ? readCsvHeader(reader, progress) : null;
+        List<Product> batch = new ArrayList<>(batchSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            long row = ++progress.rows;
+            if (line.isBlank()) {
+                continue;
+            }
+            ProductRequest productRequest;
+            try {
+                productRequest = format == Format.CSV ? parseCsvRow(line, csvColumns) : productReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                progress.failed(row, "Row could not be parsed: " + e.getOriginalMessage());
+                continue;
+            } catch (IllegalArgumentException e) {
+                progress.failed(row, "Row could not be parsed: " + e.getMessage());
+                continue;
+            }
+            // A JSON null line parses without error but holds no product
+            if (productRequest == null) {
+                progress.failed(row, "Row could not be parsed: expected a product object");
+                continue;
+            }
+            String violations = validate(productRequest);
+            if (violations != null) {
+                progress.failed(row, violations);
+                continue;
+            }
+            batch.add(ProductRequest.from(productRequest));
+            if (batch.size() == batchSize) {
+                insert(batch, progress);
+            }
+        }
+        insert(batch, progress);
+
+        long durationNanos = Math.max(1, System.nanoTime() - startedAt);
+        double rowsPerSecond = progress.imported * 1_000_000_000d / durationNanos;
+        log.info("Imported {} products, skipped {} invalid rows, {} rows/s", progress.imported, progress.failed,
+                String.format(Locale.ROOT, "%.0f", rowsPerSecond));
+        return new ProductImportResponse(progress.imported, progress.failed, progress.errors,
+                durationNanos / 1_000_000, rowsPerSecond);
+    }
+
+    private void insert(List<Product> batch, ImportProgress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // The whole batch goes to the database in one JDBC batch, whatever the global batch size is
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            batch.forEach(entityManager::persist);
+            entityManager.flush();
+            entityManager.clear();
+        });
+        progress.imported += batch.size();
+        log.debug("Inserted {} products, {} so far", batch.size(), progress.imported);
+        batch.clear();
+    }
+
+    private String validate(ProductRequest productRequest) {
+        Set<ConstraintViolation<ProductRequest>> violations = validator.validate(productRequest);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .collect(Collectors.joining(", "));
+    }
+
+    // Finds the position of every known column, so the columns may come in any order
+    private static int[] readCsvHeader(BufferedReader reader, ImportProgress progress) throws IOException {
+        String header = reader.readLine();
+        progress.rows++;
+        List<String> names;
+        try {
+            names = header == null ? List.of() : parseCsvLine(header).stream()
+                    .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                    .toList();
+        } catch (IllegalArgumentException e) {
+            throw new InvalidImportException("CSV header could not be parsed: " + e.getMessage());
+        }
+        int[] columns = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = names.indexOf(CSV_COLUMNS.get(i));
+            if (columns[i] < 0) {
+                throw new InvalidImportException("CSV header must contain the columns " + CSV_COLUMNS);
+            }
+        }
+        return columns;
+    }
+
+    private static ProductRequest parseCsvRow(String line, int[] columns) {
+        List<String> values = parseCsvLine(line);
+        String name = value(values, columns[0]);
+        String price = value(values, columns[1]);
+        String stock = value(values, columns[2]);
+        return new ProductRequest(
+                name,
+                price == null ? null : new BigDecimal(price.trim()),
+                stock == null ? null : Integer.valueOf(stock.trim()));
+    }
+
+    private static String value(List<String> values, int column) {
+        String value = column < values.size() ? values.get(column) : null;
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Splits one CSV record, fields may be quoted with {@code "} and a quote inside a quoted field is doubled.
+     * Records can not span several lines.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private final class ImportProgress {
+        private final List<RowError> errors = new ArrayList<>();
+        private long rows;
+        private long imported;
+        private long failed;
+
+        private void failed(long row, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RowError(row, message));
+            }
+        }
+    }
+
+    public enum Format {
+        NDJSON, CSV;
+
+        public static Format of(MediaType contentType) {
+            return "csv".equalsIgnoreCase(contentType.getSubtype()) ? CSV : NDJSON;
+        }
+    }
+}
@@ -1,25 +1,181 @@
 package Enoca_Challenge.service;
 
+import Enoca_Challenge.cache.BoundedCache;
+import Enoca_Challenge.cache.EntityCacheEvictor;
+import Enoca_Challenge.dto.request.ProductCursor;
+import Enoca_Challenge.dto.request.ProductFilter;
 import Enoca_Challenge.dto.request.ProductRequest;
+import Enoca_Challenge.dto.request.ProductSort;
+import Enoca_Challenge.dto.request.StockAdjustmentRequest.StockDelta;
+import Enoca_Challenge.dto.response.CursorPageResponse;
+import Enoca_Challenge.dto.response.ProductBatchResponse;
 import Enoca_Challenge.dto.response.ProductResponse;
+import Enoca_Challenge.dto.response.ProductStockResponse;
+import Enoca_Challenge.dto.response.StockAdjustmentResponse;
+import Enoca_Challenge.exception.custom.InsufficientStockException;
+import Enoca_Challenge.exception.custom.InvalidStockAdjustmentException;
 import Enoca_Challenge.exception.custom.ProductNotFoundException;
+import Enoca_Challenge.model.Money;
 import Enoca_Challenge.model.Product;
 import Enoca_Challenge.repository.ProductRepository;
+import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
 @Service
 public class ProductService {
 
     private static final Logger log = LoggerFactory.getLogger(ProductService.class);
+    private static final int MAX_LIST_PAGE_SIZE = 100;
+    // Keeps every IN list well below the bind parameter limits of the common databases
+    private static final int ID_CHUNK_SIZE = 500;
     private final ProductRepository productRepository;
+    private final BoundedCache<Long, ProductResponse> productCache;
+    private final EntityCacheEvictor entityCacheEvictor;
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, BoundedCache<Long, ProductResponse> productCache,
+                          EntityCacheEvictor entityCacheEvictor) {
         this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.entityCacheEvictor = entityCacheEvictor;
+    }
+
+    /**
+     * Lists products one slice at a time, reading one extra row to tell whether there is a next slice.
+     */
+    @Timed("enoca.service")
+    public CursorPageResponse<ProductResponse> listProducts(ProductFilter filter, ProductSort sort, String cursor, int size) {
+        ProductCursor after = cursor == null ? null : ProductCursor.decode(cursor, sort);
+        log.debug("Listing products matching {} sorted by {} after cursor: {}", filter, sort, after);
+
+        int pageSize = Math.max(1, Math.min(size, MAX_LIST_PAGE_SIZE));
+        List<ProductResponse> products = productRepository.findProducts(filter, sort, after, pageSize + 1);
+
+        String nextCursor = null;
+        if (products.size() > pageSize) {
+            products = products.subList(0, pageSize);
+            nextCursor = ProductCursor.from(products.get(pageSize - 1), sort).encode();
+        }
+        return new CursorPageResponse<>(products, nextCursor);
+    }
+
+    /**
+     * Returns the requested products in the order of their first occurrence in {@code ids}. Cached products are
+     * served from the catalog cache, the others are read with one IN query per {@value #ID_CHUNK_SIZE} ids. Ids of
+     * products that do not exist or are deleted are reported in {@code missingIds} instead of failing the batch.
+     */
+    @Timed("enoca.service")
+    public ProductBatchResponse getProducts(Collection<Long> ids) {
+        Set<Long> requestedIds = new LinkedHashSet<>(ids);
+        requestedIds.remove(null);
+        log.debug("Fetching {} products", requestedIds.size());
+
+        Map<Long, ProductResponse> found = new HashMap<>();
+        List<Long> uncachedIds = new ArrayList<>();
+        for (Long id : requestedIds) {
+            ProductResponse product = productCache.get(id);
+            if (product == null) {
+                uncachedIds.add(id);
+            } else {
+                found.put(id, product);
+            }
+        }
+        for (ProductResponse product : findInChunks(uncachedIds, productRepository::findResponsesByIdIn)) {
+            found.put(product.id(), product);
+            productCache.put(product.id(), product);
+        }
+
+        List<ProductResponse> products = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requestedIds) {
+            ProductResponse product = found.get(id);
+            if (product == null) {
+                missingIds.add(id);
+            } else {
+                products.add(product);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            log.debug("Products with ids {} not found", missingIds);
+        }
+        return new ProductBatchResponse(products, missingIds);
     }
 
+    /**
+     * Applies stock changes to many products in one transaction without loading them. Every product gets one
+     * guarded UPDATE, all of them sent as a single JDBC batch, and changes for the same product are added up first.
+     * Changes that would take the stock below zero or past the largest int, or target a missing or deleted product,
+     * are not applied and are reported instead, the other changes are kept.
+     */
+    @Transactional
+    @Timed("enoca.service")
+    public StockAdjustmentResponse adjustStocks(List<StockDelta> adjustments) {
+        SortedMap<Long, Integer> deltas = new TreeMap<>();
+        for (StockDelta adjustment : adjustments) {
+            try {
+                deltas.merge(adjustment.productId(), adjustment.delta(), Math::addExact);
+            } catch (ArithmeticException e) {
+                log.error("Stock changes for product with id {} overflow", adjustment.productId());
+                throw new InvalidStockAdjustmentException(
+                        "Stock changes for product with id " + adjustment.productId() + " add up to more than an int");
+            }
+        }
+        log.info("Adjusting stock of {} products", deltas.size());
+        int[] updatedRows = productRepository.adjustStocks(deltas);
+        invalidateCachedProducts(deltas.keySet());
+        entityCacheEvictor.evictProducts(deltas.keySet());
+
+        Set<Long> rejectedIds = new HashSet<>();
+        Iterator<Long> productIds = deltas.keySet().iterator();
+        for (int updatedRow : updatedRows) {
+            Long productId = productIds.next();
+            if (updatedRow == 0) {
+                rejectedIds.add(productId);
+            }
+        }
+
+        Map<Long, ProductStockResponse> stocks = new HashMap<>();
+        for (ProductStockResponse stock : findInChunks(new ArrayList<>(deltas.keySet()), productRepository::findStocksByIdIn)) {
+            stocks.put(stock.productId(), stock);
+        }
+        List<ProductStockResponse> adjusted = new ArrayList<>(deltas.size());
+        List<Long> insufficientStockIds = new ArrayList<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long productId : deltas.keySet()) {
+            ProductStockResponse stock = stocks.get(productId);
+            if (stock == null) {
+                missingIds.add(productId);
+            } else if (rejectedIds.contains(productId)) {
+                insufficientStockIds.add(productId);
+            } else {
+                adjusted.add(stock);
+            }
+        }
+        log.info("Stock adjusted for {} products, {} without enough stock, {} not found",
+                adjusted.size(), insufficientStockIds.size(), missingIds.size());
+        return new StockAdjustmentResponse(adjusted, insufficientStockIds, missingIds);
+    }
+
+    @Timed("enoca.service")
     public ProductResponse createProduct(ProductRequest productRequest) {
         log.info("Creating product with details: {}", productRequest);
         Product savedProduct = productRepository.save(ProductRequest.from(productRequest));
@@ -27,32 +183,72 @@ public class ProductService {
         return ProductResponse.from(savedProduct);
     }
 
+    @Timed("enoca.service")
     public ProductResponse getProduct(Long id) {
         log.debug("Fetching product with id {}", id);
-        Product product = getProductById(id);
+        ProductResponse product = getCachedProduct(id);
         log.debug("Product with id {} found", id);
-        return ProductResponse.from(product);
+        return product;
     }
 
+    @Timed("enoca.service")
     public ProductResponse updateProduct(Long id, ProductRequest productRequest) {
         log.info("Updating product with id {}", id);
         Product product = getProductById(id);
         product.setName(productRequest.name());
-        product.setPrice(productRequest.price());
+        product.setPrice(Money.of(productRequest.price()));
         product.setStock(productRequest.stock());
         Product updatedProduct = productRepository.save(product);
+        invalidateCachedProducts(List.of(id));
+        entityCacheEvictor.evictProduct(id);
         log.info("Product with id {} updated successfully", updatedProduct.getId());
         return ProductResponse.from(updatedProduct);
     }
 
+    @Timed("enoca.service")
     public void deleteProduct(Long id) {
         log.info("Deleting product with id {}", id);
         Product product = getProductById(id);
         product.setDeleted(true);
         productRepository.save(product);
+        invalidateCachedProducts(List.of(id));
+        entityCacheEvictor.evictProduct(id);
         log.info("Product with id {} marked as deleted", id);
     }
 
+    /**
+     * Returns the ETag of a product from its version alone, empty when the product does not exist.
+     */
+    public Optional<String> getProductETag(Long id) {
+        return productRepository.findVersionById(id).map(version -> "product-" + version);
+    }
+
+    /**
+     * Drops the products from the catalog cache right away and once more after the commit, otherwise a read that
+     * runs before the commit puts the old row back into the cache for the whole time to live.
+     */
+    private void invalidateCachedProducts(Collection<Long> ids) {
+        List<Long> productIds = List.copyOf(ids);
+        productIds.forEach(productCache::invalidate);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    productIds.forEach(productCache::invalidate);
+                }
+            });
+        }
+    }
+
+    // Runs one IN query per chunk of ids and returns all rows found
+    private static <T> List<T> findInChunks(List<Long> ids, Function<List<Long>, List<T>> query) {
+        List<T> rows = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+            rows.addAll(query.apply(ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size()))));
+        }
+        return rows;
+    }
+
     protected Product getProductById(Long id) {
         log.debug("Fetching product with id {}", id);
         return productRepository.findByIdAndIsDeletedFalse(id).orElseThrow(
@@ -63,10 +259,34 @@ public class ProductService {
         );
     }
 
-    protected void reduceProductStock(Product product, Integer quantity) {
-        log.debug("Reducing stock for product with id {} by {}", product.getId(), quantity);
-        product.setStock(product.getStock() - quantity);
-        productRepository.save(product);
-        log.info("Product with id {} stock reduced by {}. New stock: {}", product.getId(), quantity, product.getStock());
+    /**
+     * Returns the product from the catalog cache, loading it from the database on a miss. The stock of a cached
+     * product may be slightly out of date, it is only checked against the database when an order is placed.
+     */
+    protected ProductResponse getCachedProduct(Long id) {
+        return productCache.get(id, productId -> ProductResponse.from(getProductById(productId)));
+    }
+
+    protected Product getProductReference(Long id) {
+        return productRepository.getReferenceById(id);
+    }
+
+    @Timed("enoca.service")
+    protected void reduceProductStock(Map<Long, Integer> quantitiesByProductId) {
+        log.debug("Reducing stock for products {}", quantitiesByProductId);
+        SortedMap<Long, Integer> sortedQuantities = new TreeMap<>(quantitiesByProductId);
+        int[] updatedRows = productRepository.decreaseStocks(sortedQuantities);
+        invalidateCachedProducts(sortedQuantities.keySet());
+        entityCacheEvictor.evictProducts(sortedQuantities.keySet());
+
+        Iterator<Long> productIds = sortedQuantities.keySet().iterator();
+        for (int updatedRow : updatedRows) {
+            Long productId = productIds.next();
+            if (updatedRow == 0) {
+                log.error("Not enough stock for product with id {}", productId);
+                throw new InsufficientStockException("Not enough stock for product with id " + productId);
+            }
+        }
+        log.info("Stock reduced for products {}", quantitiesByProductId);
     }
 }
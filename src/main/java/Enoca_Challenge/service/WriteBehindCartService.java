@@ -0,0 +1,584 @@
+package Enoca_Challenge.service;
+
+import Enoca_Challenge.concurrency.SerializedPerCustomer;
+import Enoca_Challenge.dto.request.CartItemRequest;
+import Enoca_Challenge.dto.response.CartResponse;
+import Enoca_Challenge.dto.response.ProductResponse;
+import Enoca_Challenge.exception.custom.EmptyCartException;
+import Enoca_Challenge.exception.custom.InsufficientStockException;
+import Enoca_Challenge.exception.custom.ProductNotFoundException;
+import Enoca_Challenge.model.Cart;
+import Enoca_Challenge.model.CartItem;
+import Enoca_Challenge.repository.CartItemRepository;
+import Enoca_Challenge.repository.CartRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Keeps active carts in memory and writes them to the database behind the caller. Cart changes only touch the
+ * in-memory copy, dirty carts are written in batches on a fixed delay, so many changes to one cart end up as a
+ * single update. A cart is always written before an order is placed for it, and before it is evicted because it
+ * was idle or the buffer was full.
+ * <p>
+ * Changes made since the last flush are lost if the process dies, at most one flush interval of them. Every
+ * buffered cart remembers the version of the row it was read from, a row changed by anything else in the meantime
+ * wins and the buffered copy is dropped instead of overwriting it.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "enoca.cart.write-behind.enabled", havingValue = "true")
+public class WriteBehindCartService extends CartService {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindCartService.class);
+
+    private final CartRepository cartRepository;
+    private final ProductService productService;
+    private final CustomerService customerService;
+    private final CartItemRepository cartItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxCarts;
+    private final int flushBatchSize;
+    private final Duration flushInterval;
+    private final Duration idleTimeout;
+    // Access ordered, so the least recently used cart is the first one evicted when the buffer is full
+    private final LinkedHashMap<Long, BufferedCart> carts = new LinkedHashMap<>(16, 0.75f, true);
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean overflowWriteScheduled = new AtomicBoolean();
+    private final Counter flushedCarts;
+    private final Counter discardedCarts;
+
+    public WriteBehindCartService(CartRepository cartRepository, ProductService productService,
+                                  CustomerService customerService, CartItemRepository cartItemRepository,
+                                  PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                  @Value("${enoca.cart.write-behind.max-carts}") int maxCarts,
+                                  @Value("${enoca.cart.write-behind.flush-interval}") Duration flushInterval,
+                                  @Value("${enoca.cart.write-behind.flush-batch-size}") int flushBatchSize,
+                                  @Value("${enoca.cart.write-behind.idle-timeout}") Duration idleTimeout) {
+        super(cartRepository, productService, customerService, cartItemRepository);
+        this.cartRepository = cartRepository;
+        this.productService = productService;
+        this.customerService = customerService;
+        this.cartItemRepository = cartItemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxCarts = maxCarts;
+        this.flushInterval = flushInterval;
+        this.flushBatchSize = flushBatchSize;
+        this.idleTimeout = idleTimeout;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("enoca.cart.write-behind.carts", carts, this::size)
+                .description("Carts kept in memory")
+                .register(meterRegistry);
+        this.flushedCarts = Counter.builder("enoca.cart.write-behind.flushed")
+                .description("Cart snapshots written to the database")
+                .register(meterRegistry);
+        this.discardedCarts = Counter.builder("enoca.cart.write-behind.discarded")
+                .description("Buffered carts dropped because their row was changed by someone else")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        long delay = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushAndEvictIdle, delay, delay, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    @Timed("enoca.service")
+    @SerializedPerCustomer
+    public CartResponse getCart(Long id) {
+        log.info("Fetching buffered cart for customer with ID: {}", id);
+        return change(id, BufferedCart::create);
+    }
+
+    /**
+     * A buffered cart is tagged from its in-memory state, which is ahead of the row until it is flushed.
+     */
+    @Override
+    public Optional<String> getCartETag(Long customerId) {
+        BufferedCart cart;
+        synchronized (carts) {
+            cart = carts.get(customerId);
+        }
+        if (cart != null) {
+            synchronized (cart) {
+                if (!cart.isEvicted()) {
+                    return Optional.of(cart.eTag());
+                }
+            }
+        }
+        return super.getCartETag(customerId);
+    }
+
+    @Override
+    @Timed("enoca.service")
+    @SerializedPerCustomer
+    public CartResponse addProductToCart(CartItemRequest request) {
+        log.info("Adding product with ID: {} to buffered cart for customer with ID: {}", request.productId(), request.customerId());
+        ProductResponse product = productService.getCachedProduct(request.productId());
+        return change(request.customerId(), cart -> {
+            BufferedCart.Line line = cart.line(product.id());
+            BufferedCart.Line updatedLine = (line == null ? BufferedCart.Line.empty(product.price()) : line)
+                    .plus(product.price(), 1);
+            if (product.stock() < updatedLine.quantity()) {
+                log.error("Insufficient stock for product: {}", product.name());
+                throw new InsufficientStockException("Not enough stock for product: " + product.name());
+            }
+            cart.create();
+            cart.putLine(product.id(), updatedLine, product.price());
+        });
+    }
+
+    @Override
+    @Timed("enoca.service")
+    @SerializedPerCustomer
+    public CartResponse reduceProductQuantity(CartItemRequest request) {
+        log.info("Removing product with ID: {} from buffered cart for customer with ID: {}", request.productId(), request.customerId());
+        return change(request.customerId(), cart -> {
+            BufferedCart.Line line = getLine(cart, request.productId());
+            if (line.quantity() > 1) {
+                cart.putLine(request.productId(), line.plus(line.unitPrice(), -1), line.unitPrice().negate());
+            } else {
+                cart.removeLine(request.productId());
+            }
+        });
+    }
+
+    /**
+     * Empties the buffered cart. Inside a transaction, which is how an order empties it, the row itself is
+     * emptied as part of that transaction instead.
+     */
+    @Override
+    @Timed("enoca.service")
+    @SerializedPerCustomer
+    public void emptyCart(Long customerId) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            super.emptyCart(customerId);
+            return;
+        }
+        log.info("Emptying buffered cart for customer with ID: {}", customerId);
+        change(customerId, cart -> {
+            requireCart(cart);
+            cart.clear();
+        });
+    }
+
+    @Override
+    @Timed("enoca.service")
+    @SerializedPerCustomer
+    public void removeItemFromCart(CartItemRequest request) {
+        log.info("Removing item with product ID: {} from buffered cart for customer with ID: {}", request.productId(), request.customerId());
+        change(request.customerId(), cart -> {
+            getLine(cart, request.productId());
+            cart.removeLine(request.productId());
+        });
+    }
+
+    /**
+     * Writes the buffered cart before it is read from the database, so an order always sees the latest changes.
+     * Inside a transaction the cart is written as part of it and buffered again if that transaction rolls back.
+     */
+    @Override
+    protected Cart findByCustomerId(Long customerId) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            writeAndEvictInTransaction(customerId);
+        } else {
+            flushAndEvict(customerId);
+        }
+        return super.findByCustomerId(customerId);
+    }
+
+    /**
+     * Writes every dirty cart, {@code flush-batch-size} carts per transaction.
+     */
+    void flushDirtyCarts() {
+        List<BufferedCart> dirtyCarts = new ArrayList<>();
+        for (BufferedCart cart : bufferedCarts()) {
+            synchronized (cart) {
+                if (cart.isDirty() && !cart.isEvicted() && !cart.isWriting()) {
+                    cart.startWrite();
+                    dirtyCarts.add(cart);
+                }
+            }
+        }
+        for (int from = 0; from < dirtyCarts.size(); from += flushBatchSize) {
+            List<BufferedCart> batch = dirtyCarts.subList(from, Math.min(from + flushBatchSize, dirtyCarts.size()));
+            try {
+                flush(batch);
+            } catch (RuntimeException e) {
+                // The carts stay dirty and are picked up again by the next flush
+                finishWrites(dirtyCarts.subList(from, dirtyCarts.size()));
+                throw e;
+            }
+            finishWrites(batch);
+        }
+    }
+
+    /**
+     * Writes and drops the carts nobody touched for {@code idle-timeout}.
+     */
+    void evictIdleCarts() {
+        long idleSince = System.nanoTime() - idleTimeout.toNanos();
+        for (BufferedCart cart : bufferedCarts()) {
+            synchronized (cart) {
+                cart.awaitWrite();
+                if (!cart.isEvicted() && cart.isIdleSince(idleSince)) {
+                    log.debug("Evicting idle cart of customer with ID: {}", cart.customerId());
+                    writeAndEvict(cart);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(30, TimeUnit.SECONDS);
+        flushDirtyCarts();
+        log.info("Buffered carts flushed on shutdown");
+    }
+
+    private void flushAndEvictIdle() {
+        try {
+            flushDirtyCarts();
+            evictIdleCarts();
+        } catch (RuntimeException e) {
+            log.error("Flushing buffered carts failed, they are retried on the next run", e);
+        }
+    }
+
+    /**
+     * Applies {@code change} to the customer's buffered cart, loading it first when it is not buffered yet.
+     * A cart evicted while waiting for its lock is loaded again, so no change is made to a dropped copy.
+     */
+    private CartResponse change(Long customerId, Consumer<BufferedCart> change) {
+        while (true) {
+            BufferedCart cart = getOrLoad(customerId);
+            synchronized (cart) {
+                if (cart.isEvicted()) {
+                    continue;
+                }
+                cart.touch();
+                change.accept(cart);
+                return cart.toResponse();
+            }
+        }
+    }
+
+    private BufferedCart getOrLoad(Long customerId) {
+        BufferedCart cart;
+        synchronized (carts) {
+            cart = carts.get(customerId);
+        }
+        if (cart != null) {
+            return cart;
+        }
+        log.debug("Loading cart of customer with ID: {} into the buffer", customerId);
+        BufferedCart loaded = new BufferedCart(customerId, findCustomerCart(customerId).cart());
+        synchronized (carts) {
+            cart = carts.putIfAbsent(customerId, loaded);
+        }
+        evictOverflow();
+        return cart == null ? loaded : cart;
+    }
+
+    /**
+     * Drops clean carts while the buffer is full. Writing a dirty cart is left to the flusher thread, the caller
+     * never waits for the database to make room.
+     */
+    private void evictOverflow() {
+        while (true) {
+            BufferedCart eldest;
+            synchronized (carts) {
+                if (carts.size() <= maxCarts) {
+                    return;
+                }
+                eldest = carts.values().iterator().next();
+            }
+            synchronized (eldest) {
+                if (eldest.isDirty() || eldest.isWriting()) {
+                    scheduleOverflowWrite();
+                    return;
+                }
+                if (!eldest.isEvicted()) {
+                    log.debug("Cart buffer is full, dropping clean cart of customer with ID: {}", eldest.customerId());
+                    eldest.evict();
+                    synchronized (carts) {
+                        carts.remove(eldest.customerId(), eldest);
+                    }
+                }
+            }
+        }
+    }
+
+    private void scheduleOverflowWrite() {
+        if (overflowWriteScheduled.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::writeOverflow);
+            } catch (RejectedExecutionException e) {
+                // Shutting down, the remaining dirty carts are written by the final flush
+                overflowWriteScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Writes and evicts the least recently used carts until the buffer is back to {@code max-carts}.
+     */
+    void writeOverflow() {
+        overflowWriteScheduled.set(false);
+        try {
+            while (true) {
+                BufferedCart eldest;
+                synchronized (carts) {
+                    if (carts.size() <= maxCarts) {
+                        return;
+                    }
+                    eldest = carts.values().iterator().next();
+                }
+                synchronized (eldest) {
+                    eldest.awaitWrite();
+                    if (!eldest.isEvicted()) {
+                        log.debug("Cart buffer is full, evicting cart of customer with ID: {}", eldest.customerId());
+                        writeAndEvict(eldest);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Writing carts of the full buffer failed, they are retried when the next cart is loaded", e);
+        }
+    }
+
+    private void flushAndEvict(Long customerId) {
+        BufferedCart cart;
+        synchronized (carts) {
+            cart = carts.get(customerId);
+        }
+        if (cart == null) {
+            return;
+        }
+        synchronized (cart) {
+            cart.awaitWrite();
+            if (!cart.isEvicted()) {
+                writeAndEvict(cart);
+            }
+        }
+    }
+
+    private void writeAndEvictInTransaction(Long customerId) {
+        BufferedCart cart;
+        synchronized (carts) {
+            cart = carts.get(customerId);
+        }
+        if (cart == null) {
+            return;
+        }
+        synchronized (cart) {
+            cart.awaitWrite();
+            if (cart.isEvicted()) {
+                return;
+            }
+            if (cart.isDirty() && !writeSnapshots(List.of(cart.snapshot())).containsKey(customerId)) {
+                discardedCarts.increment();
+            } else {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status != STATUS_COMMITTED) {
+                            restore(cart);
+                        }
+                    }
+                });
+            }
+            cart.evict();
+            synchronized (carts) {
+                carts.remove(customerId, cart);
+            }
+        }
+    }
+
+    // The cart was never marked as flushed, so its changes are written again by the next flush
+    private void restore(BufferedCart cart) {
+        synchronized (cart) {
+            cart.restore();
+        }
+        BufferedCart current;
+        synchronized (carts) {
+            current = carts.putIfAbsent(cart.customerId(), cart);
+        }
+        if (current != null) {
+            synchronized (cart) {
+                cart.evict();
+            }
+            discardedCarts.increment();
+            log.error("Cart of customer with ID: {} was loaded again in the meantime, buffered changes are dropped", cart.customerId());
+        }
+    }
+
+    // Called with the cart's lock held and no flush writing it, the cart stays buffered if the write fails
+    private void writeAndEvict(BufferedCart cart) {
+        if (cart.isDirty()) {
+            BufferedCart.Snapshot snapshot = cart.snapshot();
+            Map<Long, Cart> written = write(List.of(snapshot));
+            if (written.containsKey(cart.customerId())) {
+                cart.flushed(snapshot, written.get(cart.customerId()));
+                flushedCarts.increment();
+            } else {
+                discardedCarts.increment();
+            }
+        }
+        cart.evict();
+        synchronized (carts) {
+            carts.remove(cart.customerId(), cart);
+        }
+    }
+
+    // Called with the carts marked as being written, they are only locked while their snapshots are taken
+    private void flush(List<BufferedCart> batch) {
+        List<BufferedCart.Snapshot> snapshots = new ArrayList<>(batch.size());
+        for (BufferedCart cart : batch) {
+            synchronized (cart) {
+                snapshots.add(cart.snapshot());
+            }
+        }
+        Map<Long, Cart> written = write(snapshots);
+        for (int i = 0; i < batch.size(); i++) {
+            BufferedCart cart = batch.get(i);
+            synchronized (cart) {
+                Cart savedCart = written.get(cart.customerId());
+                if (savedCart != null) {
+                    cart.flushed(snapshots.get(i), savedCart);
+                    flushedCarts.increment();
+                } else {
+                    discardedCarts.increment();
+                    cart.evict();
+                    synchronized (carts) {
+                        carts.remove(cart.customerId(), cart);
+                    }
+                }
+            }
+        }
+        log.debug("Flushed {} buffered carts", written.size());
+    }
+
+    private Map<Long, Cart> write(List<BufferedCart.Snapshot> snapshots) {
+        return transactionTemplate.execute(status -> writeSnapshots(snapshots));
+    }
+
+    /**
+     * Writes the snapshots and returns the saved carts by customer id. A snapshot whose row was changed since it
+     * was read is left out of the result.
+     */
+    private Map<Long, Cart> writeSnapshots(List<BufferedCart.Snapshot> snapshots) {
+        Map<Long, Cart> storedCarts = new HashMap<>();
+        for (Cart cart : cartRepository.findByCustomerIdIn(snapshots.stream().map(BufferedCart.Snapshot::customerId).toList())) {
+            storedCarts.put(cart.getCustomer().getId(), cart);
+        }
+
+        Map<Long, Cart> written = new HashMap<>();
+        for (BufferedCart.Snapshot snapshot : snapshots) {
+            Cart cart = storedCarts.get(snapshot.customerId());
+            Long storedVersion = cart == null ? null : cart.getVersion();
+            if (!Objects.equals(storedVersion, snapshot.version())) {
+                log.error("Cart of customer with ID: {} was changed outside the buffer, buffered changes are dropped", snapshot.customerId());
+                continue;
+            }
+            if (cart == null) {
+                cart = new Cart();
+                cart.setCustomer(customerService.getCustomerReference(snapshot.customerId()));
+            }
+            apply(snapshot, cart);
+            written.put(snapshot.customerId(), cartRepository.save(cart));
+        }
+        cartRepository.flush();
+        return written;
+    }
+
+    private void apply(BufferedCart.Snapshot snapshot, Cart cart) {
+        for (CartItem cartItem : List.copyOf(cart.getCartItems())) {
+            if (!snapshot.lines().containsKey(cartItem.getProduct().getId())) {
+                cart.removeCartItem(cartItem);
+                cartItemRepository.delete(cartItem);
+            }
+        }
+        snapshot.lines().forEach((productId, line) -> {
+            CartItem cartItem = cart.getCartItem(productId);
+            if (cartItem == null) {
+                cart.addCartItem(new CartItem(productService.getProductReference(productId), line.quantity(), line.priceAtTime()));
+            } else {
+                cartItem.setQuantity(line.quantity());
+                cartItem.setPriceAtTime(line.priceAtTime());
+            }
+        });
+        cart.setTotalPrice(snapshot.totalPrice());
+    }
+
+    private void requireCart(BufferedCart cart) {
+        if (!cart.exists()) {
+            log.error("Empty cart for customer with ID: {}", cart.customerId());
+            throw new EmptyCartException("Cart is empty for customer with ID: " + cart.customerId());
+        }
+    }
+
+    private BufferedCart.Line getLine(BufferedCart cart, Long productId) {
+        requireCart(cart);
+        BufferedCart.Line line = cart.line(productId);
+        if (line == null) {
+            log.error("Product with ID: {} not found in cart!", productId);
+            throw new ProductNotFoundException("Product not found in your cart!");
+        }
+        return line;
+    }
+
+    private static void finishWrites(List<BufferedCart> batch) {
+        for (BufferedCart cart : batch) {
+            synchronized (cart) {
+                cart.finishWrite();
+            }
+        }
+    }
+
+    private List<BufferedCart> bufferedCarts() {
+        synchronized (carts) {
+            return new ArrayList<>(carts.values());
+        }
+    }
+
+    private double size(Map<Long, BufferedCart> carts) {
+        synchronized (carts) {
+            return carts.size();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package Enoca_Challenge.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    @Test
+    void shouldReturnCachedValue_whenKeyIsPresent() {
+        // arrange
+        BoundedCache<Long, String> cache = new BoundedCache<>(2, Duration.ofMinutes(1), ticker::get);
+        cache.put(1L, "one");
+        // act
+        String value = cache.get(1L);
+        // assert
+        assertEquals("one", value);
+        assertEquals(new CacheStats(1, 0, 0, 1), cache.stats());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntry_whenCacheIsFull() {
+        // arrange
+        BoundedCache<Long, String> cache = new BoundedCache<>(2, Duration.ofMinutes(1), ticker::get);
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+        cache.get(1L);
+        // act
+        cache.put(3L, "three");
+        // assert
+        assertNull(cache.get(2L));
+        assertEquals("one", cache.get(1L));
+        assertEquals("three", cache.get(3L));
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void shouldExpireEntry_whenTtlHasPassed() {
+        // arrange
+        BoundedCache<Long, String> cache = new BoundedCache<>(2, Duration.ofSeconds(10), ticker::get);
+        cache.put(1L, "one");
+        // act
+        ticker.addAndGet(Duration.ofSeconds(10).toNanos());
+        // assert
+        assertNull(cache.get(1L));
+        assertEquals(new CacheStats(0, 1, 1, 0), cache.stats());
+    }
+
+    @Test
+    void shouldLoadAndCacheValue_whenKeyIsMissing() {
+        // arrange
+        BoundedCache<Long, String> cache = new BoundedCache<>(2, Duration.ofMinutes(1), ticker::get);
+        AtomicLong loads = new AtomicLong();
+        // act
+        cache.get(1L, key -> "loaded " + loads.incrementAndGet());
+        String value = cache.get(1L, key -> "loaded " + loads.incrementAndGet());
+        // assert
+        assertEquals("loaded 1", value);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void shouldNotReturnValue_whenKeyIsInvalidated() {
+        // arrange
+        BoundedCache<Long, String> cache = new BoundedCache<>(2, Duration.ofMinutes(1), ticker::get);
+        cache.put(1L, "one");
+        // act
+        cache.invalidate(1L);
+        // assert
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void shouldKeepExistingValue_whenPutIfAbsentFindsLiveEntry() {
+        // arrange
+        BoundedCache<Long, String> cache = new BoundedCache<>(2, Duration.ofSeconds(10), ticker::get);
+        // act
+        String first = cache.putIfAbsent(1L, "one");
+        String second = cache.putIfAbsent(1L, "uno");
+        ticker.addAndGet(Duration.ofSeconds(10).toNanos());
+        String afterExpiry = cache.putIfAbsent(1L, "bir");
+        // assert
+        assertNull(first);
+        assertEquals("one", second);
+        assertNull(afterExpiry);
+        assertEquals("bir", cache.get(1L));
+    }
+}
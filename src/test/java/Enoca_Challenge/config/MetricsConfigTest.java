@@ -0,0 +1,61 @@
+package Enoca_Challenge.config;
+
+import Enoca_Challenge.model.Customer;
+import Enoca_Challenge.model.Money;
+import Enoca_Challenge.model.Product;
+import Enoca_Challenge.repository.CustomerRepository;
+import Enoca_Challenge.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:metricsDB")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    void shouldExposeRequestServiceAndPoolMetrics_whenPrometheusIsScraped() throws Exception {
+        // arrange
+        Product product = productRepository.save(new Product("product", Money.of("10"), 10));
+        Customer customer = customerRepository.save(new Customer("customer", "customer@mail.com"));
+        mockMvc.perform(get("/api/v1/products/{id}", product.getId())).andExpect(status().isOk());
+        mockMvc.perform(post("/api/v1/orders/{customerId}", customer.getId())).andExpect(status().isBadRequest());
+
+        // act & assert
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "http_server_requests_seconds{error=\"none\",exception=\"none\",method=\"GET\",outcome=\"SUCCESS\",status=\"200\",uri=\"/api/v1/products/{id}\",quantile=\"0.999\"")))
+                .andExpect(content().string(containsString(
+                        "enoca_service_seconds{class=\"Enoca_Challenge.service.ProductService\",exception=\"none\",method=\"getProduct\",quantile=\"0.99\"")))
+                .andExpect(content().string(containsString(
+                        "enoca_hibernate_statements_count{method=\"GET\",uri=\"/api/v1/products/{id}\",} 1.0")))
+                .andExpect(content().string(containsString(
+                        "enoca_business_errors_total{exception=\"EmptyCartException\",} 1.0")))
+                .andExpect(content().string(containsString(
+                        "enoca_cache_misses_total{cache=\"productCache\",} 1.0")))
+                .andExpect(content().string(containsString(
+                        "enoca_cache_puts_total{cache=\"product\",} 1.0")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds_bucket")));
+    }
+}
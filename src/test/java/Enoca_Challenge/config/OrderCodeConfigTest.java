@@ -0,0 +1,40 @@
+package Enoca_Challenge.config;
+
+import Enoca_Challenge.model.OrderCodeGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderCodeConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(OrderCodeConfig.class);
+
+    @Test
+    void shouldFailToStart_whenNodeIdIsNotSet() {
+        contextRunner.withPropertyValues("enoca.orders.code.node-id=")
+                .run(context -> assertThat(context).hasFailed()
+                        .getFailure().hasRootCauseInstanceOf(IllegalStateException.class));
+    }
+
+    @Test
+    void shouldCreateGenerator_whenNodeIdIsSet() {
+        contextRunner.withPropertyValues("enoca.orders.code.node-id=7")
+                .run(context -> assertThat(context).hasSingleBean(OrderCodeGenerator.class));
+    }
+
+    @Test
+    void shouldFailToStart_whenProdProfileHasNoNodeId() {
+        contextRunner.withInitializer(new ConfigDataApplicationContextInitializer())
+                .withPropertyValues("spring.profiles.active=prod", "ENOCA_NODE_ID=")
+                .run(context -> assertThat(context).hasFailed());
+    }
+
+    @Test
+    void shouldStart_whenRunLocally() {
+        contextRunner.withInitializer(new ConfigDataApplicationContextInitializer())
+                .run(context -> assertThat(context).hasSingleBean(OrderCodeGenerator.class));
+    }
+}
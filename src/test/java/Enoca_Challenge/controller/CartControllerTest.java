@@ -3,29 +3,46 @@ package Enoca_Challenge.controller;
 import Enoca_Challenge.dto.request.CartItemRequest;
 import Enoca_Challenge.dto.response.CartResponse;
 import Enoca_Challenge.dto.response.CartItemResponse;
+import Enoca_Challenge.exception.custom.IdempotencyConflictException;
+import Enoca_Challenge.metrics.BusinessErrorMetrics;
+import Enoca_Challenge.model.Money;
 import Enoca_Challenge.service.CartService;
+import Enoca_Challenge.model.IdempotencyKey;
+import Enoca_Challenge.service.IdempotencyService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
-import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
 @WebMvcTest(CartController.class)
+@Import({BusinessErrorMetrics.class, SimpleMeterRegistry.class})
 class CartControllerTest {
 
     @Autowired
@@ -34,6 +51,15 @@ class CartControllerTest {
     @MockBean
     private CartService cartService;
 
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        when(idempotencyService.execute(any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
+    }
+
     @Test
     void testGetCart() throws Exception {
         Long customerId = 1L;
@@ -44,7 +70,7 @@ class CartControllerTest {
                 1L,
                 customerId,
                 List.of(itemResponse),
-                BigDecimal.valueOf(50.0)
+                Money.of("50.0")
         );
 
         when(cartService.getCart(customerId)).thenReturn(cartResponse);
@@ -60,6 +86,78 @@ class CartControllerTest {
         verify(cartService).getCart(customerId);
     }
 
+    @Test
+    void testGetCartReturnsETag_whenCartExists() throws Exception {
+        Long customerId = 1L;
+        CartResponse cartResponse = new CartResponse(1L, customerId, List.of(), Money.ZERO);
+
+        when(cartService.getCartETag(customerId)).thenReturn(Optional.of("cart-3"));
+        when(cartService.getCart(customerId)).thenReturn(cartResponse);
+
+        mockMvc.perform(get("/api/v1/carts/{customerId}", customerId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"cart-2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"cart-3\""))
+                .andExpect(jsonPath("$.customerId").value(customerId));
+    }
+
+    @Test
+    void testGetCartReturnsNotModifiedWithoutLoadingCart_whenETagMatches() throws Exception {
+        Long customerId = 1L;
+
+        when(cartService.getCartETag(customerId)).thenReturn(Optional.of("cart-3"));
+
+        mockMvc.perform(get("/api/v1/carts/{customerId}", customerId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"cart-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"cart-3\""))
+                .andExpect(content().string(""));
+
+        verify(cartService, never()).getCart(any());
+    }
+
+    @Test
+    void testAddProductToCartWithIdempotencyKeyOfCustomer() throws Exception {
+        CartResponse cartResponse = new CartResponse(1L, 2L, List.of(new CartItemResponse(1L, 1L, 1)), Money.of("10"));
+
+        when(cartService.addProductToCart(any(CartItemRequest.class))).thenReturn(cartResponse);
+
+        mockMvc.perform(post("/api/v1/carts/add")
+                        .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "add-key")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":1,\"customerId\":2}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cartItems[0].quantity").value(1));
+
+        verify(idempotencyService).execute(eq(2L), eq("add-key"), startsWith("add "), eq(CartResponse.class), any());
+    }
+
+    @Test
+    void testReturnConflict_whenIdempotencyKeyIsReusedForAnotherRequest() throws Exception {
+        doThrow(new IdempotencyConflictException("Idempotency key reused-key was already used for a different request."))
+                .when(idempotencyService).execute(eq(2L), eq("reused-key"), any(), any(), any());
+
+        mockMvc.perform(post("/api/v1/carts/add")
+                        .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "reused-key")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":3,\"customerId\":2}"))
+                .andExpect(status().isConflict());
+
+        verify(cartService, never()).addProductToCart(any(CartItemRequest.class));
+    }
+
+    @Test
+    void testReturnBadRequest_whenIdempotencyKeyIsTooLong() throws Exception {
+        mockMvc.perform(post("/api/v1/carts/add")
+                        .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "k".repeat(IdempotencyKey.MAX_KEY_LENGTH + 1))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":1,\"customerId\":2}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(IdempotencyKey.KEY_MESSAGE));
+
+        verifyNoInteractions(idempotencyService);
+    }
+
     @Test
     void testAddProductToCart() throws Exception {
         // Create a CartItemResponse for the response
@@ -68,7 +166,7 @@ class CartControllerTest {
                 1L,
                 1L,
                 List.of(itemResponse),
-                BigDecimal.valueOf(50.0)
+                Money.of("50.0")
         );
 
         when(cartService.addProductToCart(any(CartItemRequest.class))).thenReturn(cartResponse);
@@ -93,7 +191,7 @@ class CartControllerTest {
                 1L,
                 1L,
                 List.of(itemResponse),
-                BigDecimal.valueOf(25.0)
+                Money.of("25.0")
         );
 
         when(cartService.reduceProductQuantity(any(CartItemRequest.class))).thenReturn(cartResponse);
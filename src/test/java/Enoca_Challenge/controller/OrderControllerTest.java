@@ -1,8 +1,19 @@
 package Enoca_Challenge.controller;
 
+import Enoca_Challenge.dto.response.CursorPageResponse;
 import Enoca_Challenge.dto.response.OrderResponse;
+import Enoca_Challenge.dto.response.OrderStatusResponse;
+import Enoca_Challenge.model.OrderStatus;
+import Enoca_Challenge.service.AsyncOrderService;
+import Enoca_Challenge.service.IdempotencyService;
+import Enoca_Challenge.service.OrderExportService;
 import Enoca_Challenge.service.OrderService;
+import Enoca_Challenge.service.OrderResponseCache.SerializedOrder;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import Enoca_Challenge.dto.response.OrderItemResponse;
+import Enoca_Challenge.metrics.BusinessErrorMetrics;
+import Enoca_Challenge.model.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,14 +21,20 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.*;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
-import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.Mockito.*;
@@ -26,6 +43,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @ExtendWith(MockitoExtension.class)
 @WebMvcTest(OrderController.class)
+@Import({BusinessErrorMetrics.class, SimpleMeterRegistry.class})
 class OrderControllerTest {
 
     @Autowired
@@ -34,9 +52,23 @@ class OrderControllerTest {
     @MockBean
     private OrderService orderService;
 
+    @MockBean
+    private AsyncOrderService asyncOrderService;
+
+    @MockBean
+    private OrderExportService orderExportService;
+
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @BeforeEach
     void setup() {
-        mockMvc = MockMvcBuilders.standaloneSetup(new OrderController(orderService))
+        when(idempotencyService.execute(any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
+        mockMvc = MockMvcBuilders.standaloneSetup(new OrderController(orderService, asyncOrderService, idempotencyService, orderExportService))
                 .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
                 .build();
     }
@@ -44,11 +76,11 @@ class OrderControllerTest {
     @Test
     void testPlaceOrder() throws Exception {
         Long customerId = 1L;
-        BigDecimal totalPrice = new BigDecimal("100.0");
+        Money totalPrice = Money.of("100.0");
         String orderCode = "orderCode123";
 
         // Mocked OrderItemResponse
-        OrderItemResponse itemResponse = new OrderItemResponse(1L, "Product 1", 2, new BigDecimal("50.00"));
+        OrderItemResponse itemResponse = new OrderItemResponse(1L, "Product 1", 2, Money.of("50.00"));
 
         OrderResponse mockResponse = new OrderResponse(
                 1L,
@@ -63,21 +95,67 @@ class OrderControllerTest {
         mockMvc.perform(post("/api/v1/orders/{customerId}", customerId))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.code").value(orderCode))
-                .andExpect(jsonPath("$.totalPrice").value(totalPrice))
+                .andExpect(jsonPath("$.totalPrice").value(100.0))
                 .andExpect(jsonPath("$.orderItems[0].productName").value("Product 1"))
                 .andExpect(jsonPath("$.orderItems[0].quantity").value(2));
 
         verify(orderService, times(1)).placeOrder(customerId);
     }
 
+    @Test
+    void testPlaceOrderWithIdempotencyKeyOfCustomer() throws Exception {
+        Long customerId = 1L;
+        OrderResponse mockResponse = new OrderResponse(1L, customerId, Money.of("100.0"), "orderCode123",
+                Collections.emptyList());
+
+        when(orderService.placeOrder(customerId)).thenReturn(mockResponse);
+
+        mockMvc.perform(post("/api/v1/orders/{customerId}", customerId)
+                        .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "order-key"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.code").value("orderCode123"));
+
+        verify(idempotencyService).execute(eq(customerId), eq("order-key"), eq("order " + customerId),
+                eq(OrderResponse.class), any());
+    }
+
+    @Test
+    void testSubmitOrder() throws Exception {
+        Long customerId = 1L;
+        OrderStatusResponse pending = new OrderStatusResponse("orderCode123", OrderStatus.PENDING, null);
+
+        when(asyncOrderService.submitOrder(customerId)).thenReturn(pending);
+
+        mockMvc.perform(post("/api/v1/orders/{customerId}/async", customerId))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.code").value("orderCode123"))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+
+        verify(asyncOrderService).submitOrder(customerId);
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void testGetOrderStatus() throws Exception {
+        String orderCode = "orderCode123";
+        OrderStatusResponse rejected = new OrderStatusResponse(orderCode, OrderStatus.REJECTED, "Cart is empty");
+
+        when(asyncOrderService.getOrderStatus(orderCode)).thenReturn(rejected);
+
+        mockMvc.perform(get("/api/v1/orders/status/{orderCode}", orderCode))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("REJECTED"))
+                .andExpect(jsonPath("$.message").value("Cart is empty"));
+    }
+
     @Test
     void testGetAllOrdersForCustomer() throws Exception {
         // arrange
         Long customerId = 1L;
         Pageable pageable = PageRequest.of(0, 20, Sort.by("createdAt").descending());
 
-        OrderResponse order1 = new OrderResponse(1L, 1L, BigDecimal.valueOf(10), "orderCode1", Collections.emptyList());
-        OrderResponse order2 = new OrderResponse(2L, 1L, BigDecimal.valueOf(20), "orderCode2", Collections.emptyList());
+        OrderResponse order1 = new OrderResponse(1L, 1L, Money.of("10"), "orderCode1", Collections.emptyList());
+        OrderResponse order2 = new OrderResponse(2L, 1L, Money.of("20"), "orderCode2", Collections.emptyList());
         Page<OrderResponse> ordersPage = new PageImpl<>(List.of(order1, order2), pageable, 2);
 
         when(orderService.getAllOrdersForCustomer(customerId, pageable)).thenReturn(ordersPage);
@@ -91,35 +169,96 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.content", hasSize(2)))
                 .andExpect(jsonPath("$.content[0].id").value(order1.id()))
                 .andExpect(jsonPath("$.content[1].id").value(order2.id()))
-                .andExpect(jsonPath("$.content[0].totalPrice").value(order1.totalPrice()))
-                .andExpect(jsonPath("$.content[1].totalPrice").value(order2.totalPrice()));
+                .andExpect(jsonPath("$.content[0].totalPrice").value(10.0))
+                .andExpect(jsonPath("$.content[1].totalPrice").value(20.0));
 
         verify(orderService).getAllOrdersForCustomer(customerId, pageable);
     }
+    @Test
+    void testGetOrdersForCustomerByCursor() throws Exception {
+        // arrange
+        Long customerId = 1L;
+        OrderResponse order = new OrderResponse(1L, 1L, Money.of("10"), "orderCode1", Collections.emptyList());
+        CursorPageResponse<OrderResponse> slice = new CursorPageResponse<>(List.of(order), "next");
+
+        when(orderService.getOrdersForCustomerByCursor(customerId, "current", 10)).thenReturn(slice);
+
+        // act & assert
+        mockMvc.perform(get("/api/v1/orders/list/{customerId}/cursor", customerId)
+                        .param("cursor", "current")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].code").value("orderCode1"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verify(orderService).getOrdersForCustomerByCursor(customerId, "current", 10);
+    }
+
     @Test
     void testGetOrderForCode() throws Exception {
         String orderCode = "orderCode123";
 
         // Mocked OrderItemResponse
-        OrderItemResponse itemResponse = new OrderItemResponse(1L, "Product 1", 2, BigDecimal.TEN);
+        OrderItemResponse itemResponse = new OrderItemResponse(1L, "Product 1", 2, Money.of("10"));
 
         OrderResponse mockResponse = new OrderResponse(
                 1L,
                 1L,
-                new BigDecimal("10.0"),
+                Money.of("10.0"),
                 orderCode,
                 Collections.singletonList(itemResponse)
         );
 
-        when(orderService.getOrderForCode(orderCode)).thenReturn(mockResponse);
+        when(orderService.getOrderETag(orderCode)).thenReturn(Optional.of("order-" + orderCode));
+        when(orderService.getSerializedOrder(orderCode))
+                .thenReturn(new SerializedOrder(objectMapper.writeValueAsBytes(mockResponse)));
 
         mockMvc.perform(get("/api/v1/orders/{orderCode}", orderCode))
                 .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"order-orderCode123\""))
                 .andExpect(jsonPath("$.code").value(orderCode))
                 .andExpect(jsonPath("$.totalPrice").value("10.0"))
                 .andExpect(jsonPath("$.orderItems[0].productName").value("Product 1"))
                 .andExpect(jsonPath("$.orderItems[0].quantity").value(2));
 
-        verify(orderService, times(1)).getOrderForCode(orderCode);
+        verify(orderService, times(1)).getSerializedOrder(orderCode);
+    }
+
+    @Test
+    void testGetOrderForCodeReturnsNotModifiedWithoutLoadingOrder_whenETagMatches() throws Exception {
+        String orderCode = "orderCode123";
+
+        when(orderService.getOrderETag(orderCode)).thenReturn(Optional.of("order-" + orderCode));
+
+        mockMvc.perform(get("/api/v1/orders/{orderCode}", orderCode)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"order-orderCode123\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"order-orderCode123\""))
+                .andExpect(content().string(""));
+
+        verify(orderService, never()).getSerializedOrder(any());
+    }
+
+    @Test
+    void testExportOrdersForCustomer() throws Exception {
+        // arrange
+        Long customerId = 1L;
+        when(orderExportService.exportOrders(customerId, OrderExportService.Format.CSV))
+                .thenReturn(outputStream -> outputStream.write("order_id\n1\n".getBytes(StandardCharsets.UTF_8)));
+
+        // act
+        MvcResult result = mockMvc.perform(get("/api/v1/orders/export/{customerId}", customerId)
+                        .param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders-1.csv\""))
+                .andExpect(content().string("order_id\n1\n"));
     }
 }
@@ -1,18 +1,34 @@
 package Enoca_Challenge.controller;
 
+import Enoca_Challenge.dto.request.ProductFilter;
 import Enoca_Challenge.dto.request.ProductRequest;
+import Enoca_Challenge.dto.request.ProductSort;
+import Enoca_Challenge.dto.request.StockAdjustmentRequest.StockDelta;
+import Enoca_Challenge.dto.response.CursorPageResponse;
+import Enoca_Challenge.dto.response.ProductBatchResponse;
+import Enoca_Challenge.dto.response.ProductImportResponse;
 import Enoca_Challenge.dto.response.ProductResponse;
+import Enoca_Challenge.dto.response.ProductStockResponse;
+import Enoca_Challenge.dto.response.StockAdjustmentResponse;
+import Enoca_Challenge.model.Money;
+import Enoca_Challenge.service.ProductImportService;
 import Enoca_Challenge.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -22,6 +38,9 @@ class ProductControllerTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private ProductImportService productImportService;
+
     @InjectMocks
     private ProductController productController;
 
@@ -36,7 +55,7 @@ class ProductControllerTest {
     @Test
     void createProduct_ShouldReturnCreatedStatus_WhenValidRequest() throws Exception {
         // Arrange
-        ProductResponse response = new ProductResponse(1L, "Product A", BigDecimal.TEN, 5);
+        ProductResponse response = new ProductResponse(1L, "Product A", Money.of("10"), 5);
 
         when(productService.createProduct(any(ProductRequest.class))).thenReturn(response);
 
@@ -55,7 +74,7 @@ class ProductControllerTest {
     @Test
     void getProduct_ShouldReturnProduct_WhenValidId() throws Exception {
         // Arrange
-        ProductResponse response = new ProductResponse(1L, "Product A", BigDecimal.TEN, 5);
+        ProductResponse response = new ProductResponse(1L, "Product A", Money.of("10"), 5);
 
         when(productService.getProduct(1L)).thenReturn(response);
 
@@ -69,10 +88,24 @@ class ProductControllerTest {
         verify(productService, times(1)).getProduct(1L);
     }
 
+    @Test
+    void getProduct_ShouldReturnNotModified_WhenETagMatches() throws Exception {
+        // Arrange
+        when(productService.getProductETag(1L)).thenReturn(Optional.of("product-abc"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/products/{id}", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"product-abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"product-abc\""));
+
+        verify(productService, never()).getProduct(any());
+    }
+
     @Test
     void updateProduct_ShouldReturnOk_WhenValidRequest() throws Exception {
         // Arrange
-        ProductResponse response = new ProductResponse(1L, "Updated Product", BigDecimal.TEN, 5);
+        ProductResponse response = new ProductResponse(1L, "Updated Product", Money.of("10"), 5);
 
         when(productService.updateProduct(eq(1L), any(ProductRequest.class))).thenReturn(response);
 
@@ -110,4 +143,131 @@ class ProductControllerTest {
 
         verify(productService, times(0)).createProduct(any(ProductRequest.class));
     }
+
+    @Test
+    void listProducts_ShouldReturnSlice_WhenFiltersAreGiven() throws Exception {
+        // Arrange
+        ProductResponse response = new ProductResponse(1L, "Product A", Money.of("10"), 5);
+        ProductFilter filter = new ProductFilter(BigDecimal.ONE, BigDecimal.valueOf(20), true);
+
+        when(productService.listProducts(filter, ProductSort.PRICE_DESC, "current", 10))
+                .thenReturn(new CursorPageResponse<>(List.of(response), "next"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/products")
+                        .param("minPrice", "1")
+                        .param("maxPrice", "20")
+                        .param("inStock", "true")
+                        .param("sort", "PRICE_DESC")
+                        .param("cursor", "current")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verify(productService, times(1)).listProducts(filter, ProductSort.PRICE_DESC, "current", 10);
+    }
+
+    @Test
+    void listProducts_ShouldReturnBadRequest_WhenSortIsUnknown() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/products").param("sort", "STOCK"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void getProducts_ShouldReturnFoundAndMissingProducts_WhenIdsAreGiven() throws Exception {
+        // Arrange
+        ProductResponse response = new ProductResponse(1L, "Product A", Money.of("10"), 5);
+
+        when(productService.getProducts(List.of(1L, 2L))).thenReturn(new ProductBatchResponse(List.of(response), List.of(2L)));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/products").param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].id").value(1))
+                .andExpect(jsonPath("$.missingIds[0]").value(2));
+
+        verify(productService, times(1)).getProducts(List.of(1L, 2L));
+        verify(productService, never()).listProducts(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getProductsInBatch_ShouldReturnProducts_WhenIdsAreGiven() throws Exception {
+        // Arrange
+        ProductResponse response = new ProductResponse(1L, "Product A", Money.of("10"), 5);
+
+        when(productService.getProducts(List.of(1L))).thenReturn(new ProductBatchResponse(List.of(response), List.of()));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/products/batch")
+                        .contentType("application/json")
+                        .content("{\"ids\": [1]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].name").value("Product A"))
+                .andExpect(jsonPath("$.missingIds").isEmpty());
+    }
+
+    @Test
+    void getProductsInBatch_ShouldReturnBadRequest_WhenIdsAreEmpty() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/products/batch")
+                        .contentType("application/json")
+                        .content("{\"ids\": []}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void importProducts_ShouldReturnImportSummary_WhenCsvIsUploaded() throws Exception {
+        // Arrange
+        ProductImportResponse response = new ProductImportResponse(1, 1,
+                List.of(new ProductImportResponse.RowError(3, "price: Price must be greater than 0")), 5, 200.0);
+
+        when(productImportService.importProducts(any(), eq(ProductImportService.Format.CSV))).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/products/import")
+                        .contentType("text/csv")
+                        .content("name,price,stock\nProduct A,10,5\nProduct B,0,5\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importedRows").value(1))
+                .andExpect(jsonPath("$.failedRows").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(3));
+
+        verify(productImportService, times(1)).importProducts(any(), eq(ProductImportService.Format.CSV));
+    }
+
+    @Test
+    void adjustStocks_ShouldReturnNewStocks_WhenValidRequest() throws Exception {
+        // Arrange
+        List<StockDelta> adjustments = List.of(new StockDelta(1L, 5), new StockDelta(2L, -3));
+        when(productService.adjustStocks(adjustments)).thenReturn(
+                new StockAdjustmentResponse(List.of(new ProductStockResponse(1L, 15)), List.of(2L), List.of()));
+
+        // Act & Assert
+        mockMvc.perform(patch("/api/v1/products/stock")
+                        .contentType("application/json")
+                        .content("{\"adjustments\": [{\"productId\": 1, \"delta\": 5}, {\"productId\": 2, \"delta\": -3}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stocks[0].productId").value(1))
+                .andExpect(jsonPath("$.stocks[0].stock").value(15))
+                .andExpect(jsonPath("$.insufficientStockIds[0]").value(2));
+
+        verify(productService, times(1)).adjustStocks(adjustments);
+    }
+
+    @Test
+    void adjustStocks_ShouldReturnBadRequest_WhenDeltaIsMissing() throws Exception {
+        // Act & Assert
+        mockMvc.perform(patch("/api/v1/products/stock")
+                        .contentType("application/json")
+                        .content("{\"adjustments\": [{\"productId\": 1}]}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(productService);
+    }
 }
@@ -0,0 +1,64 @@
+package Enoca_Challenge.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldAddAndMultiplyInMinorUnits() {
+        // arrange
+        Money price = Money.of("9.99");
+        // act
+        Money total = price.times(3).plus(Money.of("0.03")).minus(Money.of("10"));
+        // assert
+        assertEquals(Money.ofMinor(2000), total);
+        assertEquals(new BigDecimal("20.00"), total.toBigDecimal());
+    }
+
+    @Test
+    void shouldFormatWithTwoDecimalPlaces() {
+        assertEquals("12.50", Money.of("12.5").toString());
+        assertEquals("0.00", Money.ZERO.toString());
+        assertEquals("-0.05", Money.ofMinor(-5).toString());
+        assertEquals("-3.07", Money.ofMinor(-307).toString());
+    }
+
+    @Test
+    void shouldThrowArithmeticException_whenAmountHasMoreThanTwoDecimalPlaces() {
+        assertThrows(ArithmeticException.class, () -> Money.of("1.005"));
+        assertEquals(Money.ofMinor(100), Money.of("1.000"));
+    }
+
+    @Test
+    void shouldThrowArithmeticException_whenResultOverflows() {
+        // arrange
+        Money max = Money.ofMinor(Long.MAX_VALUE);
+        // act & assert
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofMinor(1)));
+        assertThrows(ArithmeticException.class, () -> max.times(2));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MIN_VALUE).minus(Money.ofMinor(1)));
+    }
+
+    @Test
+    void shouldWriteAndReadJsonAsPlainNumber() throws Exception {
+        // act
+        String json = objectMapper.writeValueAsString(Money.of("12.5"));
+        // assert
+        assertEquals("12.50", json);
+        assertEquals(Money.of("12.5"), objectMapper.readValue(json, Money.class));
+        assertEquals(Money.of("3"), objectMapper.readValue("\"3\"", Money.class));
+    }
+
+    @Test
+    void shouldRejectJson_whenAmountHasMoreThanTwoDecimalPlaces() {
+        assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("1.005", Money.class));
+    }
+}
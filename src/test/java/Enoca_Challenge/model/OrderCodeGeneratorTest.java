@@ -0,0 +1,73 @@
+package Enoca_Challenge.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderCodeGeneratorTest {
+
+    private final AtomicLong clock = new AtomicLong(OrderCodeGenerator.EPOCH_MILLIS + 1_000);
+
+    @Test
+    void shouldGenerateFixedLengthCode() {
+        // arrange
+        OrderCodeGenerator generator = new OrderCodeGenerator(1, clock::get);
+        // act
+        String code = generator.next();
+        // assert
+        assertTrue(code.matches("ORDER-[0-9A-HJKMNP-TV-Z]{13}"), code);
+    }
+
+    @Test
+    void shouldGenerateIncreasingCodes_whenCounterRunsOutWithinMillisecond() {
+        // arrange
+        OrderCodeGenerator generator = new OrderCodeGenerator(1, clock::get);
+        String previous = generator.next();
+        // act & assert
+        for (int i = 0; i < 20_000; i++) {
+            String code = generator.next();
+            assertTrue(code.compareTo(previous) > 0, code + " must sort after " + previous);
+            previous = code;
+        }
+        clock.addAndGet(60_000);
+        assertTrue(generator.next().compareTo(previous) > 0);
+    }
+
+    @Test
+    void shouldNotRepeatCodes_whenClockMovesBack() {
+        // arrange
+        OrderCodeGenerator generator = new OrderCodeGenerator(1, clock::get);
+        String beforeClockMovedBack = generator.next();
+        clock.addAndGet(-5_000);
+        // act
+        String afterClockMovedBack = generator.next();
+        // assert
+        assertTrue(afterClockMovedBack.compareTo(beforeClockMovedBack) > 0);
+    }
+
+    @Test
+    void shouldGenerateDifferentCodes_whenNodesGenerateInSameMillisecond() {
+        // arrange
+        OrderCodeGenerator first = new OrderCodeGenerator(1, clock::get);
+        OrderCodeGenerator second = new OrderCodeGenerator(2, clock::get);
+        Set<String> codes = new HashSet<>();
+        // act
+        for (int i = 0; i < 1_000; i++) {
+            codes.add(first.next());
+            codes.add(second.next());
+        }
+        // assert
+        assertEquals(2_000, codes.size());
+    }
+
+    @Test
+    void shouldThrowIllegalArgumentException_whenNodeIdIsOutOfRange() {
+        // act & assert
+        assertThrows(IllegalArgumentException.class, () -> new OrderCodeGenerator(OrderCodeGenerator.MAX_NODE_ID + 1));
+        assertThrows(IllegalArgumentException.class, () -> new OrderCodeGenerator(-1));
+    }
+}
@@ -1,10 +1,16 @@
 package Enoca_Challenge.repository;
 
+import Enoca_Challenge.dto.response.CartResponse;
 import Enoca_Challenge.model.Cart;
+import Enoca_Challenge.model.CartItem;
 import Enoca_Challenge.model.Customer;
+import Enoca_Challenge.model.Money;
+import Enoca_Challenge.model.Product;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -50,4 +56,147 @@ class CartRepositoryTest extends BaseRepositoryTest {
         // assert
         assertFalse(savedCart.isPresent());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldLoadCartWithSingleStatement_whenFindByCustomerId() {
+        // arrange
+        Customer customer = customerRepository.save(new Customer("customer", "customer@mail.com"));
+        Cart cart = new Cart();
+        cart.setCustomer(customer);
+        for (int i = 0; i < 10; i++) {
+            Product product = entityManager.persist(new Product("product " + i, Money.of("10"), 10));
+            cart.addCartItem(new CartItem(product, 1, Money.of("10")));
+        }
+        cart.setTotalPrice(Money.of("100"));
+        cartRepository.save(cart);
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = resetStatistics();
+        // act
+        CartResponse response = CartResponse.from(cartRepository.findByCustomerId(customer.getId()).orElseThrow());
+        // assert
+        assertEquals(10, response.cartItems().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldFindCustomerWithCartInSingleStatement_whenFindCustomerCart() {
+        // arrange
+        Customer customer = customerRepository.save(new Customer("customer", "customer@mail.com"));
+        Cart cart = new Cart();
+        cart.setCustomer(customer);
+        for (int i = 0; i < 10; i++) {
+            Product product = entityManager.persist(new Product("product " + i, Money.of("10"), 10));
+            cart.addCartItem(new CartItem(product, 1, Money.of("10")));
+        }
+        cartRepository.save(cart);
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = resetStatistics();
+        // act
+        CustomerCart customerCart = cartRepository.findCustomerCart(customer.getId()).orElseThrow();
+        CartResponse response = CartResponse.from(customerCart.cart());
+        // assert
+        assertEquals(customer.getId(), customerCart.customerId());
+        assertEquals(10, response.cartItems().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldFindCustomerWithoutCart_whenFindCustomerCartAndCartDoesNotExist() {
+        // arrange
+        Customer customer = customerRepository.save(new Customer("customer", "customer@mail.com"));
+        // act
+        Optional<CustomerCart> customerCart = cartRepository.findCustomerCart(customer.getId());
+        // assert
+        assertTrue(customerCart.isPresent());
+        assertNull(customerCart.get().cart());
+    }
+
+    @Test
+    void shouldNotFindCustomerCart_whenCustomerDoesNotExist() {
+        // act
+        Optional<CustomerCart> customerCart = cartRepository.findCustomerCart(1L);
+        // assert
+        assertTrue(customerCart.isEmpty());
+    }
+
+    @Test
+    void shouldReturnVersionChangedByCartItems_whenFindVersionByCustomerId() {
+        // arrange
+        Cart cart = saveCartWithItems("versioned", 1);
+        Long customerId = cart.getCustomer().getId();
+        Long version = cartRepository.findVersionByCustomerId(customerId).orElseThrow();
+        Product product = entityManager.persist(new Product("new product", Money.of("10"), 10));
+        cart.addCartItem(new CartItem(product, 1, Money.of("10")));
+        entityManager.flush();
+        // act
+        Long changedVersion = cartRepository.findVersionByCustomerId(customerId).orElseThrow();
+        // assert
+        assertNotEquals(version, changedVersion);
+        assertTrue(cartRepository.findVersionByCustomerId(-1L).isEmpty());
+    }
+
+    @Test
+    void shouldDeleteIdleCartsInBatches_whenDeleteIdleCarts() {
+        // arrange
+        Cart firstCart = saveCartWithItems("first", 2);
+        Cart secondCart = saveCartWithItems("second", 2);
+        LocalDateTime idleSince = LocalDateTime.now().plusMinutes(1);
+        // act
+        int firstBatch = cartRepository.deleteIdleCarts(idleSince, 1);
+        int secondBatch = cartRepository.deleteIdleCarts(idleSince, 1);
+        int thirdBatch = cartRepository.deleteIdleCarts(idleSince, 1);
+        entityManager.clear();
+        // assert
+        assertEquals(1, firstBatch);
+        assertEquals(1, secondBatch);
+        assertEquals(0, thirdBatch);
+        assertFalse(cartRepository.existsById(firstCart.getId()));
+        assertFalse(cartRepository.existsById(secondCart.getId()));
+    }
+
+    @Test
+    void shouldKeepRecentlyChangedCarts_whenDeleteIdleCarts() {
+        // arrange
+        Cart cart = saveCartWithItems("recent", 1);
+        // act
+        int deleted = cartRepository.deleteIdleCarts(LocalDateTime.now().minusDays(1), 10);
+        entityManager.clear();
+        // assert
+        assertEquals(0, deleted);
+        assertEquals(1, cartRepository.findById(cart.getId()).orElseThrow().getCartItems().size());
+    }
+
+    @Test
+    void shouldDeleteOnlyUnlinkedCartItems_whenDeleteOrphanCartItems() {
+        // arrange
+        saveCartWithItems("idle", 3);
+        Cart keptCart = saveCartWithItems("kept", 2);
+        entityManager.persist(new CartItem(null, 1, Money.of("10")));
+        entityManager.flush();
+        cartRepository.deleteIdleCarts(LocalDateTime.now().plusMinutes(1), 1);
+        // act
+        int firstBatch = cartRepository.deleteOrphanCartItems(3);
+        int secondBatch = cartRepository.deleteOrphanCartItems(3);
+        entityManager.clear();
+        // assert
+        assertEquals(3, firstBatch);
+        assertEquals(1, secondBatch);
+        assertEquals(0, cartRepository.deleteOrphanCartItems(3));
+        assertEquals(2, cartRepository.findById(keptCart.getId()).orElseThrow().getCartItems().size());
+    }
+
+    private Cart saveCartWithItems(String name, int itemCount) {
+        Customer customer = customerRepository.save(new Customer(name, name + "@mail.com"));
+        Cart cart = new Cart();
+        cart.setCustomer(customer);
+        for (int i = 0; i < itemCount; i++) {
+            Product product = entityManager.persist(new Product(name + " product " + i, Money.of("10"), 10));
+            cart.addCartItem(new CartItem(product, 1, Money.of("10")));
+        }
+        cartRepository.save(cart);
+        entityManager.flush();
+        return cart;
+    }
+}
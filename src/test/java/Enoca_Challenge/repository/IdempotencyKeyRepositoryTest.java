@@ -0,0 +1,58 @@
+package Enoca_Challenge.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyKeyRepositoryTest extends BaseRepositoryTest {
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private final LocalDateTime claimedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+    @Test
+    void shouldClaimKeyOnlyOnce_whenSameCustomerClaimsItAgain() {
+        // act
+        boolean first = idempotencyKeyRepository.claim(1L, "key", "order 1", claimedAt);
+        boolean second = idempotencyKeyRepository.claim(1L, "key", "order 1", claimedAt);
+        boolean otherCustomer = idempotencyKeyRepository.claim(2L, "key", "order 2", claimedAt);
+        // assert
+        assertTrue(first);
+        assertFalse(second);
+        assertTrue(otherCustomer);
+    }
+
+    @Test
+    void shouldKeepCompletedKey_whenReleased() {
+        // arrange
+        idempotencyKeyRepository.claim(1L, "key", "order 1", claimedAt);
+        idempotencyKeyRepository.complete(1L, "key", claimedAt, "{}");
+        // act
+        idempotencyKeyRepository.release(1L, "key", claimedAt);
+        // assert
+        StoredIdempotencyKey stored = idempotencyKeyRepository.findStoredKey(1L, "key").orElseThrow();
+        assertEquals("order 1", stored.fingerprint());
+        assertEquals("{}", stored.response());
+    }
+
+    @Test
+    void shouldKeepTakenOverKey_whenAbandonedClaimFinishes() {
+        // arrange
+        LocalDateTime takenOverAt = claimedAt.plusMinutes(2);
+        idempotencyKeyRepository.claim(1L, "key", "order 1", claimedAt);
+        idempotencyKeyRepository.deleteIfAbandoned(1L, "key", claimedAt.plusMinutes(1));
+        idempotencyKeyRepository.claim(1L, "key", "order 1", takenOverAt);
+        // act
+        idempotencyKeyRepository.complete(1L, "key", claimedAt, "{\"run\":1}");
+        idempotencyKeyRepository.release(1L, "key", claimedAt);
+        // assert
+        StoredIdempotencyKey stored = idempotencyKeyRepository.findStoredKey(1L, "key").orElseThrow();
+        assertEquals(takenOverAt, stored.createdAt());
+        assertNull(stored.response());
+    }
+}
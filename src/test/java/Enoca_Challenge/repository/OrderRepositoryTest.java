@@ -1,12 +1,22 @@
 package Enoca_Challenge.repository;
 
+import Enoca_Challenge.dto.response.OrderResponse;
 import Enoca_Challenge.model.Customer;
+import Enoca_Challenge.model.Money;
 import Enoca_Challenge.model.Order;
+import Enoca_Challenge.model.OrderItem;
+import Enoca_Challenge.model.Product;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class OrderRepositoryTest extends BaseRepositoryTest {
@@ -60,6 +70,7 @@ class OrderRepositoryTest extends BaseRepositoryTest {
     void shouldReturnOrderByCode() {
         // arrange
         Order order = new Order();
+        order.setCode("ORDER-0000000000001");
         orderRepository.save(order);
         // act
         Order savedOrder = orderRepository.findByCode(order.getCode()).orElse(null);
@@ -77,4 +88,104 @@ class OrderRepositoryTest extends BaseRepositoryTest {
         // assert
         assertNull(savedOrder);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldRejectOrder_whenCodeIsAlreadyUsed() {
+        // arrange
+        Order order = new Order();
+        order.setCode("ORDER-0000000000001");
+        orderRepository.saveAndFlush(order);
+        Order duplicate = new Order();
+        duplicate.setCode(order.getCode());
+        // act & assert
+        assertThrows(DataIntegrityViolationException.class, () -> orderRepository.saveAndFlush(duplicate));
+    }
+
+    @Test
+    void shouldBatchInserts_whenOrderWithManyItemsIsSaved() {
+        // arrange
+        Customer customer = customerRepository.save(new Customer("customer", "customer@mail.com"));
+        Product product = entityManager.persist(new Product("product", Money.of("10"), 100));
+        entityManager.flush();
+        List<OrderItem> orderItems = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            orderItems.add(new OrderItem(product, product.getName(), 1, Money.of("10")));
+        }
+        Statistics statistics = resetStatistics();
+        // act
+        orderRepository.save(new Order(customer, Money.of("300"), orderItems));
+        entityManager.flush();
+        // assert
+        assertEquals(31, statistics.getEntityInsertCount());
+        // one batched statement each for orders, order items and the join table, plus the sequence calls
+        assertTrue(statistics.getPrepareStatementCount() <= 5);
+    }
+
+    @Test
+    void shouldReturnOrdersAfterCursor_whenFindByCustomerIdBefore() {
+        // arrange
+        Customer customer = customerRepository.save(new Customer());
+        Order oldest = orderRepository.save(new Order(customer, null, null));
+        Order middle = orderRepository.save(new Order(customer, null, null));
+        Order newest = orderRepository.save(new Order(customer, null, null));
+        orderRepository.save(new Order(customerRepository.save(new Customer()), null, null));
+        entityManager.flush();
+        // act
+        List<Order> firstSlice = orderRepository
+                .findByCustomerIdOrderByCreatedAtDescIdDesc(customer.getId(), Pageable.ofSize(2));
+        Order last = firstSlice.get(firstSlice.size() - 1);
+        List<Order> secondSlice = orderRepository
+                .findByCustomerIdBefore(customer.getId(), last.getCreatedAt(), last.getId(), Pageable.ofSize(2));
+        // assert
+        assertEquals(List.of(newest, middle), firstSlice);
+        assertEquals(List.of(oldest), secondSlice);
+    }
+
+    @Test
+    void shouldLoadOrderPageWithConstantStatementCount_whenOrdersHaveManyItems() {
+        // arrange
+        Customer customer = customerRepository.save(new Customer("customer", "customer@mail.com"));
+        for (int i = 0; i < 20; i++) {
+            List<OrderItem> orderItems = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                Product product = entityManager.persist(new Product("product " + i + "-" + j, Money.of("10"), 10));
+                orderItems.add(new OrderItem(product, product.getName(), 1, Money.of("10")));
+            }
+            orderRepository.save(new Order(customer, Money.of("30"), orderItems));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = resetStatistics();
+        // act
+        List<OrderResponse> orders = orderRepository.findAllByCustomerId(customer.getId(), PageRequest.of(0, 20))
+                .map(OrderResponse::from)
+                .getContent();
+        // assert
+        assertEquals(20, orders.size());
+        assertEquals(60, orders.stream().mapToLong(order -> order.orderItems().size()).sum());
+        // the page, its count, and one batch for all order items with their products
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldLoadOrderWithSingleStatement_whenFindByCode() {
+        // arrange
+        Customer customer = customerRepository.save(new Customer("customer", "customer@mail.com"));
+        List<OrderItem> orderItems = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Product product = entityManager.persist(new Product("product " + i, Money.of("10"), 10));
+            orderItems.add(new OrderItem(product, product.getName(), 1, Money.of("10")));
+        }
+        Order order = new Order(customer, Money.of("100"), orderItems);
+        order.setCode("ORDER-0000000000001");
+        orderRepository.save(order);
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = resetStatistics();
+        // act
+        OrderResponse response = OrderResponse.from(orderRepository.findByCode(order.getCode()).orElseThrow());
+        // assert
+        assertEquals(10, response.orderItems().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -1,8 +1,18 @@
 package Enoca_Challenge.repository;
 
+import Enoca_Challenge.dto.request.ProductCursor;
+import Enoca_Challenge.dto.request.ProductFilter;
+import Enoca_Challenge.dto.request.ProductSort;
+import Enoca_Challenge.dto.response.ProductResponse;
+import Enoca_Challenge.dto.response.ProductStockResponse;
+import Enoca_Challenge.model.Money;
 import Enoca_Challenge.model.Product;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -57,4 +67,94 @@ class ProductRepositoryTest extends BaseRepositoryTest {
         // assert
         assertEquals("new name", updatedProduct.getName());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldListMatchingProductsOnly_whenFindProductsWithFilter() {
+        // arrange
+        Product cheap = new Product("cheap", Money.of("1"), 5);
+        Product outOfStock = new Product("out of stock", Money.of("5"), 0);
+        Product deleted = new Product("deleted", Money.of("5"), 5);
+        deleted.setDeleted(true);
+        Product matching = new Product("matching", Money.of("5"), 5);
+        productRepository.saveAllAndFlush(List.of(cheap, outOfStock, deleted, matching));
+        // act
+        List<ProductResponse> products = productRepository.findProducts(
+                new ProductFilter(BigDecimal.valueOf(2), BigDecimal.TEN, true), ProductSort.ID, null, 10);
+        // assert
+        assertEquals(List.of(matching.getId()), products.stream().map(ProductResponse::id).toList());
+    }
+
+    @Test
+    void shouldListNextSlice_whenFindProductsAfterCursor() {
+        // arrange
+        Product first = new Product("a", Money.of("30"), 1);
+        Product second = new Product("b", Money.of("20"), 1);
+        Product third = new Product("c", Money.of("20"), 1);
+        Product fourth = new Product("d", Money.of("10"), 1);
+        productRepository.saveAllAndFlush(List.of(first, second, third, fourth));
+        ProductFilter filter = new ProductFilter(null, null, false);
+        List<ProductResponse> firstSlice = productRepository.findProducts(filter, ProductSort.PRICE_DESC, null, 2);
+        // act
+        ProductCursor cursor = ProductCursor.from(firstSlice.get(1), ProductSort.PRICE_DESC);
+        List<ProductResponse> secondSlice = productRepository.findProducts(filter, ProductSort.PRICE_DESC, cursor, 2);
+        // assert
+        assertEquals(List.of(first.getId(), third.getId()), firstSlice.stream().map(ProductResponse::id).toList());
+        assertEquals(List.of(second.getId(), fourth.getId()), secondSlice.stream().map(ProductResponse::id).toList());
+    }
+
+    @Test
+    void shouldReturnExistingProductsOnly_whenFindResponsesByIdIn() {
+        // arrange
+        Product product = new Product("product", Money.of("10"), 5);
+        Product deleted = new Product("deleted", Money.of("10"), 5);
+        deleted.setDeleted(true);
+        productRepository.saveAll(List.of(product, deleted));
+        // act
+        List<ProductResponse> products = productRepository.findResponsesByIdIn(List.of(product.getId(), deleted.getId(), 0L));
+        // assert
+        assertEquals(1, products.size());
+        assertEquals(product.getId(), products.get(0).id());
+        assertEquals("product", products.get(0).name());
+    }
+
+    @Test
+    void shouldAdjustStocksThatStayPositive_whenAdjustStocks() {
+        // arrange
+        Product increased = new Product("increased", Money.of("10"), 5);
+        Product decreased = new Product("decreased", Money.of("10"), 5);
+        Product tooLow = new Product("too low", Money.of("10"), 5);
+        productRepository.saveAllAndFlush(List.of(increased, decreased, tooLow));
+        // act
+        int[] updatedRows = productRepository.adjustStocks(Map.of(
+                increased.getId(), 10, decreased.getId(), -5, tooLow.getId(), -6, 0L, 1));
+        // assert
+        assertArrayEquals(new int[]{0, 1, 1, 0}, updatedRows);
+        assertEquals(
+                List.of(new ProductStockResponse(increased.getId(), 15), new ProductStockResponse(decreased.getId(), 0),
+                        new ProductStockResponse(tooLow.getId(), 5)),
+                productRepository.findStocksByIdIn(List.of(increased.getId(), decreased.getId(), tooLow.getId())));
+    }
+
+    @Test
+    void shouldNotAdjustStock_whenStockWouldOverflow() {
+        // arrange
+        Product full = productRepository.saveAndFlush(new Product("full", Money.of("10"), Integer.MAX_VALUE - 1));
+        // act
+        int[] updatedRows = productRepository.adjustStocks(Map.of(full.getId(), 2));
+        // assert
+        assertArrayEquals(new int[]{0}, updatedRows);
+        assertEquals(List.of(new ProductStockResponse(full.getId(), Integer.MAX_VALUE - 1)),
+                productRepository.findStocksByIdIn(List.of(full.getId())));
+    }
+
+    @Test
+    void shouldRaiseVersion_whenStockIsDecreased() {
+        // arrange
+        Product product = productRepository.saveAndFlush(new Product("product", Money.of("10"), 5));
+        Long version = productRepository.findVersionById(product.getId()).orElseThrow();
+        // act
+        productRepository.decreaseStocks(Map.of(product.getId(), 2));
+        // assert
+        assertEquals(version + 1, productRepository.findVersionById(product.getId()).orElseThrow());
+    }
+}
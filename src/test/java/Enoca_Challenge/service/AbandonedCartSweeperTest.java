@@ -0,0 +1,68 @@
+package Enoca_Challenge.service;
+
+import Enoca_Challenge.repository.CartRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AbandonedCartSweeperTest extends BaseServiceTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AbandonedCartSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new AbandonedCartSweeper(cartRepository, transactionManager, meterRegistry, Duration.ofDays(7), BATCH_SIZE);
+    }
+
+    @Test
+    void shouldDeleteInTransactionalBatchesUntilBatchIsNotFull_whenSweep() {
+        // arrange
+        when(cartRepository.deleteIdleCarts(any(LocalDateTime.class), eq(BATCH_SIZE))).thenReturn(2, 2, 1);
+        when(cartRepository.deleteOrphanCartItems(BATCH_SIZE)).thenReturn(2, 0);
+
+        // act
+        AbandonedCartSweeper.SweepResult result = sweeper.sweep();
+
+        // assert
+        assertEquals(5, result.deletedCarts());
+        assertEquals(2, result.deletedCartItems());
+        verify(transactionManager, times(5)).getTransaction(any());
+        verify(transactionManager, times(5)).commit(any());
+        assertEquals(5, meterRegistry.get("enoca.cart.sweeper.reclaimed").tag("table", "cart").counter().count());
+        assertEquals(2, meterRegistry.get("enoca.cart.sweeper.reclaimed").tag("table", "cart_item").counter().count());
+    }
+
+    @Test
+    void shouldOnlyDeleteCartsIdleLongerThanTtl_whenSweep() {
+        // arrange
+        LocalDateTime before = LocalDateTime.now().minusDays(7);
+
+        // act
+        sweeper.sweep();
+
+        // assert
+        verify(cartRepository).deleteIdleCarts(argThat(idleSince ->
+                !idleSince.isBefore(before) && idleSince.isBefore(LocalDateTime.now().minusDays(7).plusSeconds(1))), eq(BATCH_SIZE));
+    }
+}
@@ -0,0 +1,206 @@
+package Enoca_Challenge.service;
+
+import Enoca_Challenge.cache.BoundedCache;
+import Enoca_Challenge.dto.response.OrderStatusResponse;
+import Enoca_Challenge.exception.custom.CustomerNotFoundException;
+import Enoca_Challenge.exception.custom.EmptyCartException;
+import Enoca_Challenge.exception.custom.OrderNotFoundException;
+import Enoca_Challenge.exception.custom.OrderQueueFullException;
+import Enoca_Challenge.metrics.BusinessErrorMetrics;
+import Enoca_Challenge.model.OrderCodeGenerator;
+import Enoca_Challenge.model.OrderStatus;
+import Enoca_Challenge.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class AsyncOrderServiceTest extends BaseServiceTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private CustomerService customerService;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private final QueueingExecutor executor = new QueueingExecutor();
+
+    private AsyncOrderService asyncOrderService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setup() {
+        asyncOrderService = new AsyncOrderService(orderService, customerService, orderRepository,
+                new OrderCodeGenerator(0), new BusinessErrorMetrics(meterRegistry), executor,
+                new BoundedCache<>(1, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void shouldReturnPendingStatus_whenSubmitOrder() {
+        // act
+        OrderStatusResponse result = asyncOrderService.submitOrder(1L);
+
+        // assert
+        assertEquals(OrderStatus.PENDING, result.status());
+        assertEquals(OrderStatus.PENDING, asyncOrderService.getOrderStatus(result.code()).status());
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void shouldKeepPendingStatus_whenFinishedStatusesAreEvicted() {
+        // arrange
+        OrderStatusResponse first = asyncOrderService.submitOrder(1L);
+        OrderStatusResponse second = asyncOrderService.submitOrder(2L);
+
+        // act
+        OrderStatusResponse result = asyncOrderService.getOrderStatus(first.code());
+
+        // assert
+        assertEquals(OrderStatus.PENDING, result.status());
+        assertEquals(OrderStatus.PENDING, asyncOrderService.getOrderStatus(second.code()).status());
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void shouldNotQueueOrder_whenCustomerDoesNotExist() {
+        // arrange
+        doThrow(new CustomerNotFoundException("Customer with id 1 not found"))
+                .when(customerService).validateCustomerExists(1L);
+
+        // act & assert
+        assertThrows(CustomerNotFoundException.class, () -> asyncOrderService.submitOrder(1L));
+        executor.runQueued();
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void shouldConfirmOrder_whenQueuedOrderIsPlaced() {
+        // arrange
+        OrderStatusResponse submitted = asyncOrderService.submitOrder(1L);
+
+        // act
+        executor.runQueued();
+
+        // assert
+        verify(orderService).placeOrder(1L, submitted.code());
+        assertEquals(OrderStatus.CONFIRMED, asyncOrderService.getOrderStatus(submitted.code()).status());
+    }
+
+    @Test
+    void shouldRejectOrder_whenQueuedOrderFails() {
+        // arrange
+        when(orderService.placeOrder(anyLong(), anyString())).thenThrow(new EmptyCartException("Cart is empty"));
+        OrderStatusResponse submitted = asyncOrderService.submitOrder(1L);
+
+        // act
+        executor.runQueued();
+
+        // assert
+        OrderStatusResponse result = asyncOrderService.getOrderStatus(submitted.code());
+        assertEquals(OrderStatus.REJECTED, result.status());
+        assertEquals("Cart is empty", result.message());
+        assertEquals(1, meterRegistry.counter(BusinessErrorMetrics.METRIC_NAME, "exception", "EmptyCartException").count());
+    }
+
+    @Test
+    void shouldFailOrderWithGenericMessage_whenQueuedOrderRunsIntoError() {
+        // arrange
+        when(orderService.placeOrder(anyLong(), anyString()))
+                .thenThrow(new CannotAcquireLockException("Timeout trying to lock table \"PRODUCT\""));
+        OrderStatusResponse submitted = asyncOrderService.submitOrder(1L);
+
+        // act
+        executor.runQueued();
+
+        // assert
+        OrderStatusResponse result = asyncOrderService.getOrderStatus(submitted.code());
+        assertEquals(OrderStatus.FAILED, result.status());
+        assertFalse(result.message().contains("PRODUCT"));
+    }
+
+    @Test
+    void shouldThrowOrderQueueFullException_whenQueueIsFull() {
+        // arrange
+        executor.full = true;
+
+        // act & assert
+        assertThrows(OrderQueueFullException.class, () -> asyncOrderService.submitOrder(1L));
+    }
+
+    @Test
+    void shouldReturnConfirmedStatus_whenStatusIsNotTrackedAndOrderExists() {
+        // arrange
+        when(orderRepository.existsByCode("orderCode")).thenReturn(true);
+
+        // act
+        OrderStatusResponse result = asyncOrderService.getOrderStatus("orderCode");
+
+        // assert
+        assertEquals(OrderStatus.CONFIRMED, result.status());
+    }
+
+    @Test
+    void shouldThrowOrderNotFoundException_whenStatusIsNotTrackedAndOrderDoesNotExist() {
+        // act & assert
+        assertThrows(OrderNotFoundException.class, () -> asyncOrderService.getOrderStatus("orderCode"));
+    }
+
+    private static class QueueingExecutor extends AbstractExecutorService {
+        private final List<Runnable> queued = new ArrayList<>();
+        private boolean full;
+
+        void runQueued() {
+            queued.forEach(Runnable::run);
+            queued.clear();
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (full) {
+                throw new RejectedExecutionException("full");
+            }
+            queued.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package Enoca_Challenge.service;
+
+import Enoca_Challenge.dto.request.CartItemRequest;
+import Enoca_Challenge.model.Cart;
+import Enoca_Challenge.model.CartItem;
+import Enoca_Challenge.model.Customer;
+import Enoca_Challenge.model.Money;
+import Enoca_Challenge.model.Product;
+import Enoca_Challenge.repository.CartRepository;
+import Enoca_Challenge.repository.CustomerRepository;
+import Enoca_Challenge.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cartConcurrencyDB;LOCK_TIMEOUT=10000",
+        "enoca.cart.retry.max-attempts=100",
+        "enoca.cart.striping.enabled=false"
+})
+class CartServiceConcurrencyTest {
+
+    private static final int THREAD_COUNT = 8;
+    private static final int ADDS_PER_THREAD = 25;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldNotLoseUpdates_whenSameCartIsChangedConcurrently() throws Exception {
+        // arrange
+        Product product = productRepository.save(new Product("product", Money.of("10"), 1000));
+        Product otherProduct = productRepository.save(new Product("other product", Money.of("1"), 1000));
+        Customer customer = customerRepository.save(new Customer("customer", "customer@mail.com"));
+        Cart cart = new Cart();
+        cart.setCustomer(customer);
+        cart.setCartItems(List.of(new CartItem(product, 1, Money.of("10"))));
+        cartRepository.save(cart);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // act
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            Long productId = i % 2 == 0 ? product.getId() : otherProduct.getId();
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < ADDS_PER_THREAD; j++) {
+                    cartService.addProductToCart(new CartItemRequest(customer.getId(), productId));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        // assert
+        int addsPerProduct = THREAD_COUNT / 2 * ADDS_PER_THREAD;
+        Cart reloaded = cartRepository.findByCustomerId(customer.getId()).orElseThrow();
+        assertEquals(1 + addsPerProduct, reloaded.getCartItem(product.getId()).getQuantity());
+        assertEquals(addsPerProduct, reloaded.getCartItem(otherProduct.getId()).getQuantity());
+        assertEquals(Money.of("10").times(1 + addsPerProduct).plus(Money.of("1").times(addsPerProduct)), reloaded.getTotalPrice());
+        assertEquals(meterRegistry.find("enoca.cart.conflicts").counters().stream().mapToDouble(c -> c.count()).sum(),
+                meterRegistry.find("enoca.cart.retries").counters().stream().mapToDouble(c -> c.count()).sum());
+    }
+
+    @Test
+    void shouldCreateOneCart_whenFirstProductsAreAddedConcurrently() throws Exception {
+        // arrange
+        Product product = productRepository.save(new Product("product", Money.of("10"), 1000));
+        Customer customer = customerRepository.save(new Customer("new customer", "new@mail.com"));
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // act
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                cartService.addProductToCart(new CartItemRequest(customer.getId(), product.getId()));
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        // assert
+        Cart reloaded = cartRepository.findByCustomerId(customer.getId()).orElseThrow();
+        assertEquals(THREAD_COUNT, reloaded.getCartItem(product.getId()).getQuantity());
+    }
+}
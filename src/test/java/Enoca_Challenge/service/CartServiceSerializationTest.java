@@ -0,0 +1,147 @@
+package Enoca_Challenge.service;
+
+import Enoca_Challenge.dto.request.CartItemRequest;
+import Enoca_Challenge.exception.custom.EmptyCartException;
+import Enoca_Challenge.model.Cart;
+import Enoca_Challenge.model.CartItem;
+import Enoca_Challenge.model.Customer;
+import Enoca_Challenge.model.Money;
+import Enoca_Challenge.model.Product;
+import Enoca_Challenge.repository.CartRepository;
+import Enoca_Challenge.repository.CustomerRepository;
+import Enoca_Challenge.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cartSerializationDB;LOCK_TIMEOUT=10000",
+        "enoca.cart.retry.max-attempts=1"
+})
+class CartServiceSerializationTest {
+
+    private static final int THREAD_COUNT = 16;
+    private static final int CHANGES_PER_THREAD = 20;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldApplyEveryChangeWithoutConflicts_whenCustomersChangeTheirCartsConcurrently() throws Exception {
+        // arrange
+        Product product = productRepository.save(new Product("product", Money.of("10"), 10_000));
+        Customer sharedCustomer = customerRepository.save(new Customer("shared", "shared@mail.com"));
+        List<Customer> otherCustomers = new ArrayList<>();
+        for (int i = 0; i < THREAD_COUNT / 2; i++) {
+            otherCustomers.add(customerRepository.save(new Customer("customer " + i, "customer" + i + "@mail.com")));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // act
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            // Half of the threads hammer one cart, every other thread owns a cart of its own
+            Long customerId = i % 2 == 0 ? sharedCustomer.getId() : otherCustomers.get(i / 2).getId();
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < CHANGES_PER_THREAD; j++) {
+                    cartService.addProductToCart(new CartItemRequest(customerId, product.getId()));
+                    cartService.addProductToCart(new CartItemRequest(customerId, product.getId()));
+                    cartService.reduceProductQuantity(new CartItemRequest(customerId, product.getId()));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        // assert
+        Cart sharedCart = cartRepository.findByCustomerId(sharedCustomer.getId()).orElseThrow();
+        assertEquals(THREAD_COUNT / 2 * CHANGES_PER_THREAD, sharedCart.getCartItem(product.getId()).getQuantity());
+        assertEquals(Money.of("10").times(THREAD_COUNT / 2 * CHANGES_PER_THREAD), sharedCart.getTotalPrice());
+        for (Customer customer : otherCustomers) {
+            Cart cart = cartRepository.findByCustomerId(customer.getId()).orElseThrow();
+            assertEquals(CHANGES_PER_THREAD, cart.getCartItem(product.getId()).getQuantity());
+        }
+        assertEquals(0, meterRegistry.find("enoca.cart.conflicts").counters().stream().mapToDouble(c -> c.count()).sum());
+    }
+
+    @Test
+    void shouldKeepEveryAddedProduct_whenOrdersArePlacedWhileCartChanges() throws Exception {
+        // arrange
+        Product product = productRepository.save(new Product("ordered product", Money.of("10"), 10_000));
+        Customer customer = customerRepository.save(new Customer("ordering", "ordering@mail.com"));
+        double conflictsBefore = meterRegistry.find("enoca.cart.conflicts").counters().stream()
+                .mapToDouble(c -> c.count()).sum();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // act
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            boolean ordering = i % 2 == 0;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < CHANGES_PER_THREAD; j++) {
+                    if (!ordering) {
+                        cartService.addProductToCart(new CartItemRequest(customer.getId(), product.getId()));
+                        continue;
+                    }
+                    try {
+                        orderService.placeOrder(customer.getId());
+                    } catch (EmptyCartException e) {
+                        // Nothing was added since the last order
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        // assert
+        Cart cart = cartRepository.findByCustomerId(customer.getId()).orElseThrow();
+        CartItem remaining = cart.getCartItem(product.getId());
+        int ordered = 10_000 - productRepository.findById(product.getId()).orElseThrow().getStock();
+        assertEquals(THREAD_COUNT / 2 * CHANGES_PER_THREAD, ordered + (remaining == null ? 0 : remaining.getQuantity()));
+        assertEquals(conflictsBefore, meterRegistry.find("enoca.cart.conflicts").counters().stream()
+                .mapToDouble(c -> c.count()).sum());
+    }
+}
@@ -2,20 +2,25 @@ package Enoca_Challenge.service;
 
 import Enoca_Challenge.dto.request.CartItemRequest;
 import Enoca_Challenge.dto.response.CartResponse;
+import Enoca_Challenge.dto.response.ProductResponse;
+import Enoca_Challenge.exception.custom.CustomerNotFoundException;
 import Enoca_Challenge.exception.custom.EmptyCartException;
 import Enoca_Challenge.exception.custom.InsufficientStockException;
 import Enoca_Challenge.exception.custom.ProductNotFoundException;
 import Enoca_Challenge.model.Cart;
 import Enoca_Challenge.model.CartItem;
 import Enoca_Challenge.model.Customer;
+import Enoca_Challenge.model.Money;
 import Enoca_Challenge.model.Product;
 import Enoca_Challenge.repository.CartItemRepository;
 import Enoca_Challenge.repository.CartRepository;
+import Enoca_Challenge.repository.CustomerCart;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -49,7 +54,7 @@ class CartServiceTest extends BaseServiceTest{
         Customer customer = new Customer();
         cart.setCustomer(customer);
 
-        when(cartRepository.findByCustomerId(customerId)).thenReturn(Optional.of(cart));
+        when(cartRepository.findCustomerCart(customerId)).thenReturn(Optional.of(new CustomerCart(customerId, cart)));
 
         // act
         CartResponse result = cartService.getCart(customerId);
@@ -65,17 +70,54 @@ class CartServiceTest extends BaseServiceTest{
         Customer customer = new Customer();
         customer.setId(customerId);
 
-        when(cartRepository.findByCustomerId(customerId)).thenReturn(Optional.empty());
-        when(customerService.getCustomerById(customerId)).thenReturn(customer);
-        when(cartRepository.save(any(Cart.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(cartRepository.findCustomerCart(customerId)).thenReturn(Optional.of(new CustomerCart(customerId, null)));
+        when(customerService.getCustomerReference(customerId)).thenReturn(customer);
+        when(cartRepository.saveAndFlush(any(Cart.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // act
         CartResponse result = cartService.getCart(customerId);
 
         // assert
         assertNotNull(result);
-        verify(cartRepository).save(any(Cart.class));
-        verify(customerService).getCustomerById(customerId);
+        verify(cartRepository).saveAndFlush(any(Cart.class));
+        verify(customerService).getCustomerReference(customerId);
+    }
+
+    @Test
+    void shouldThrowOptimisticLockingFailureException_whenCartIsCreatedByAnotherRequest() {
+        // arrange
+        Long customerId = 1L;
+
+        when(cartRepository.findCustomerCart(customerId)).thenReturn(Optional.of(new CustomerCart(customerId, null)));
+        when(customerService.getCustomerReference(customerId)).thenReturn(new Customer());
+        when(cartRepository.saveAndFlush(any(Cart.class))).thenThrow(new DataIntegrityViolationException("duplicate cart"));
+
+        // act & assert
+        assertThrows(OptimisticLockingFailureException.class, () -> cartService.getCart(customerId));
+    }
+
+    @Test
+    void shouldThrowCustomerNotFoundException_whenGetCartAndCustomerDoesNotExist() {
+        // arrange
+        Long customerId = 1L;
+
+        when(cartRepository.findCustomerCart(customerId)).thenReturn(Optional.empty());
+
+        // act & assert
+        assertThrows(CustomerNotFoundException.class, () -> cartService.getCart(customerId));
+        verify(cartRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldReturnETagFromCartVersion_whenGetCartETag() {
+        // arrange
+        when(cartRepository.findVersionByCustomerId(1L)).thenReturn(Optional.of(4L));
+        when(cartRepository.findVersionByCustomerId(2L)).thenReturn(Optional.empty());
+
+        // act & assert
+        assertEquals(Optional.of("cart-4"), cartService.getCartETag(1L));
+        assertEquals(Optional.empty(), cartService.getCartETag(2L));
+        verify(cartRepository, never()).findCustomerCart(any());
     }
 
     @Test
@@ -86,15 +128,17 @@ class CartServiceTest extends BaseServiceTest{
         CartItemRequest request = new CartItemRequest(productId, customerId);
         Product product = new Product(
                 "product name",
-                BigDecimal.TEN,
+                Money.of("10"),
                 10
         );
+        product.setId(productId);
         Cart cart = new Cart();
         Customer customer = new Customer();
         cart.setCustomer(customer);
 
-        when(cartRepository.findByCustomerId(customerId)).thenReturn(Optional.of(cart));
-        when(productService.getProductById(productId)).thenReturn(product);
+        when(cartRepository.findCustomerCart(customerId)).thenReturn(Optional.of(new CustomerCart(customerId, cart)));
+        when(productService.getCachedProduct(productId)).thenReturn(ProductResponse.from(product));
+        when(productService.getProductReference(productId)).thenReturn(product);
 
 
         when(cartRepository.save(any(Cart.class))).thenAnswer(invocation -> invocation.getArgument(0));
@@ -105,7 +149,36 @@ class CartServiceTest extends BaseServiceTest{
         // assert
         assertNotNull(result);
         assertEquals(1, cart.getCartItems().size());
-        assertEquals(BigDecimal.TEN, cart.getTotalPrice());
+        assertEquals(Money.of("10"), cart.getTotalPrice());
+    }
+
+    @Test
+    void shouldIncreaseOnlyMatchingLineAndTotal_whenProductIsAlreadyInCart() {
+        // arrange
+        Long customerId = 1L;
+        Product product = new Product("product", Money.of("10"), 10);
+        product.setId(1L);
+        Product otherProduct = new Product("other product", Money.of("1"), 10);
+        otherProduct.setId(2L);
+        CartItem cartItem = new CartItem(product, 1, Money.of("10"));
+        CartItem otherCartItem = new CartItem(otherProduct, 3, Money.of("3"));
+        Cart cart = new Cart();
+        cart.setCustomer(new Customer());
+        cart.setCartItems(List.of(cartItem, otherCartItem));
+
+        when(cartRepository.findCustomerCart(customerId)).thenReturn(Optional.of(new CustomerCart(customerId, cart)));
+        when(productService.getCachedProduct(1L)).thenReturn(ProductResponse.from(product));
+        when(cartRepository.save(cart)).thenReturn(cart);
+
+        // act
+        cartService.addProductToCart(new CartItemRequest(customerId, 1L));
+
+        // assert
+        assertEquals(2, cart.getCartItems().size());
+        assertEquals(2, cartItem.getQuantity());
+        assertEquals(3, otherCartItem.getQuantity());
+        assertEquals(Money.of("23"), cart.getTotalPrice());
+        verify(productService, never()).getProductReference(any());
     }
 
     @Test
@@ -117,16 +190,18 @@ class CartServiceTest extends BaseServiceTest{
 
         Product product = new Product(
                 "product name",
-                BigDecimal.TEN,
+                Money.of("10"),
                 0
         );
+        product.setId(productId);
 
         Cart cart = new Cart();
         Customer customer = new Customer();
         cart.setCustomer(customer);
 
-        when(cartRepository.findByCustomerId(customerId)).thenReturn(Optional.of(cart));
-        when(productService.getProductById(productId)).thenReturn(product);
+        when(cartRepository.findCustomerCart(customerId)).thenReturn(Optional.of(new CustomerCart(customerId, cart)));
+        when(productService.getCachedProduct(productId)).thenReturn(ProductResponse.from(product));
+        when(productService.getProductReference(productId)).thenReturn(product);
 
         // act
         Exception exception = assertThrows(InsufficientStockException.class, () -> cartService.addProductToCart(request));
@@ -142,14 +217,14 @@ class CartServiceTest extends BaseServiceTest{
         Long productId = 1L;
         CartItemRequest request = new CartItemRequest(productId, customerId);
 
-        Product product = new Product("Product Name", BigDecimal.TEN, 10);
+        Product product = new Product("Product Name", Money.of("10"), 10);
         product.setId(productId);
-        CartItem cartItem = new CartItem(product, 2, BigDecimal.valueOf(20));
+        CartItem cartItem = new CartItem(product, 2, Money.of("20"));
         Cart cart = new Cart();
         cart.setCustomer(new Customer());
         cart.setCartItems(List.of(cartItem));
 
-        when(cartRepository.findByCustomerId(customerId)).thenReturn(Optional.of(cart));
+        when(cartRepository.findCustomerCart(customerId)).thenReturn(Optional.of(new CustomerCart(customerId, cart)));
         when(cartRepository.save(cart)).thenReturn(cart);
 
         // act
@@ -158,7 +233,7 @@ class CartServiceTest extends BaseServiceTest{
         // assert
         assertNotNull(result);
         assertEquals(1, cartItem.getQuantity());
-        assertEquals(BigDecimal.valueOf(10), cart.getTotalPrice());
+        assertEquals(Money.of("10"), cart.getTotalPrice());
         verify(cartItemRepository, never()).delete(cartItem);
     }
 
@@ -169,14 +244,14 @@ class CartServiceTest extends BaseServiceTest{
         Long productId = 1L;
         CartItemRequest request = new CartItemRequest(productId, customerId);
 
-        Product product = new Product("Product Name", BigDecimal.TEN, 10);
+        Product product = new Product("Product Name", Money.of("10"), 10);
         product.setId(productId);
-        CartItem cartItem = new CartItem(product, 1, BigDecimal.TEN);
+        CartItem cartItem = new CartItem(product, 1, Money.of("10"));
         Cart cart = new Cart();
         cart.setCustomer(new Customer());
         cart.setCartItems(new ArrayList<>(List.of(cartItem)));
 
-        when(cartRepository.findByCustomerId(customerId)).thenReturn(Optional.of(cart));
+        when(cartRepository.findCustomerCart(customerId)).thenReturn(Optional.of(new CustomerCart(customerId, cart)));
         when(cartRepository.save(cart)).thenReturn(cart);
 
         // act
@@ -185,7 +260,7 @@ class CartServiceTest extends BaseServiceTest{
         // assert
         assertNotNull(result);
         assertTrue(cart.getCartItems().isEmpty());
-        assertEquals(BigDecimal.ZERO, cart.getTotalPrice());
+        assertEquals(Money.ZERO, cart.getTotalPrice());
         verify(cartItemRepository).delete(cartItem);
     }
 
@@ -200,7 +275,7 @@ class CartServiceTest extends BaseServiceTest{
         cart.setCustomer(new Customer());
         cart.setCartItems(new ArrayList<>());
 
-        when(cartRepository.findByCustomerId(customerId)).thenReturn(Optional.of(cart));
+        when(cartRepository.findCustomerCart(customerId)).thenReturn(Optional.of(new CustomerCart(customerId, cart)));
 
         // act & assert
         assertThrows(ProductNotFoundException.class, () -> cartService.reduceProductQuantity(request));
@@ -213,7 +288,7 @@ class CartServiceTest extends BaseServiceTest{
         Long customerId = 1L;
         CartItemRequest request = new CartItemRequest(1L, customerId);
 
-        when(cartRepository.findByCustomerId(customerId)).thenReturn(Optional.empty());
+        when(cartRepository.findCustomerCart(customerId)).thenReturn(Optional.of(new CustomerCart(customerId, null)));
 
         // act & assert
         assertThrows(EmptyCartException.class, () -> cartService.reduceProductQuantity(request));
@@ -228,7 +303,7 @@ class CartServiceTest extends BaseServiceTest{
         cart.setCustomer(new Customer());
         cart.setCartItems(new ArrayList<>());
 
-        when(cartRepository.findByCustomerId(customerId)).thenReturn(Optional.of(cart));
+        when(cartRepository.findCustomerCart(customerId)).thenReturn(Optional.of(new CustomerCart(customerId, cart)));
         when(cartRepository.save(cart)).thenReturn(cart);
 
         // act
@@ -236,7 +311,7 @@ class CartServiceTest extends BaseServiceTest{
 
         // assert
         assertTrue(cart.getCartItems().isEmpty());
-        assertEquals(BigDecimal.ZERO, cart.getTotalPrice());
+        assertEquals(Money.ZERO, cart.getTotalPrice());
     }
 
     @Test
@@ -246,20 +321,21 @@ class CartServiceTest extends BaseServiceTest{
         Long productId = 1L;
         CartItemRequest request = new CartItemRequest(productId, customerId);
 
-        Product product = new Product("Product Name", BigDecimal.TEN, 10);
+        Product product = new Product("Product Name", Money.of("10"), 10);
         product.setId(productId);
-        CartItem cartItem = new CartItem(product, 1, BigDecimal.TEN);
+        CartItem cartItem = new CartItem(product, 1, Money.of("10"));
         Cart cart = new Cart();
         cart.setCustomer(new Customer());
         cart.setCartItems(new ArrayList<>(List.of(cartItem)));
 
-        when(cartRepository.findByCustomerId(customerId)).thenReturn(Optional.of(cart));
+        when(cartRepository.findCustomerCart(customerId)).thenReturn(Optional.of(new CustomerCart(customerId, cart)));
 
         // act
         cartService.removeItemFromCart(request);
 
         // assert
         assertTrue(cart.getCartItems().isEmpty());
-        assertEquals(BigDecimal.ZERO, cart.getTotalPrice());
+        assertEquals(Money.ZERO, cart.getTotalPrice());
+        verify(cartItemRepository).delete(cartItem);
     }
 }
@@ -0,0 +1,158 @@
+package Enoca_Challenge.service;
+
+import Enoca_Challenge.dto.response.CartResponse;
+import Enoca_Challenge.exception.custom.EmptyCartException;
+import Enoca_Challenge.exception.custom.IdempotencyConflictException;
+import Enoca_Challenge.model.Money;
+import Enoca_Challenge.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:idempotencyDB")
+class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        idempotencyKeyRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void shouldRunActionEveryTime_whenIdempotencyKeyIsMissing() {
+        // act
+        idempotencyService.execute(1L, null, "order 1", Integer.class, runs::incrementAndGet);
+        idempotencyService.execute(1L, " ", "order 1", Integer.class, runs::incrementAndGet);
+
+        // assert
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void shouldReplayStoredResponse_whenIdempotencyKeyIsReused() {
+        // arrange
+        CartResponse cart = new CartResponse(1L, 1L, List.of(), Money.of("12.50"));
+
+        // act
+        CartResponse first = idempotencyService.execute(1L, "key", "add 1", CartResponse.class, () -> {
+            runs.incrementAndGet();
+            return cart;
+        });
+        CartResponse second = idempotencyService.execute(1L, "key", "add 1", CartResponse.class, () -> {
+            runs.incrementAndGet();
+            return cart;
+        });
+
+        // assert
+        assertSame(cart, first);
+        assertEquals(cart, second);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void shouldRunActionForEachCustomer_whenCustomersUseSameKey() {
+        // act
+        Integer first = idempotencyService.execute(1L, "key", "order", Integer.class, runs::incrementAndGet);
+        Integer second = idempotencyService.execute(2L, "key", "order", Integer.class, runs::incrementAndGet);
+
+        // assert
+        assertEquals(1, first);
+        assertEquals(2, second);
+    }
+
+    @Test
+    void shouldThrowIdempotencyConflictException_whenKeyIsReusedForDifferentRequest() {
+        // arrange
+        idempotencyService.execute(1L, "key", "order 1", Integer.class, runs::incrementAndGet);
+
+        // act & assert
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotencyService.execute(1L, "key", "add 1", Integer.class, runs::incrementAndGet));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void shouldThrowIdempotencyConflictException_whenFirstRequestIsInProgress() {
+        // act & assert
+        assertThrows(IdempotencyConflictException.class, () -> idempotencyService.execute(1L, "key", "order 1",
+                Integer.class, () -> idempotencyService.execute(1L, "key", "order 1", Integer.class, runs::incrementAndGet)));
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void shouldRunActionAgain_whenInProgressClaimOutlivedLease() {
+        // arrange
+        idempotencyKeyRepository.claim(1L, "key", "order 1", LocalDateTime.now().minusMinutes(2));
+
+        // act
+        Integer result = idempotencyService.execute(1L, "key", "order 1", Integer.class, runs::incrementAndGet);
+
+        // assert
+        assertEquals(1, result);
+        assertNotNull(idempotencyKeyRepository.findStoredKey(1L, "key").orElseThrow().response());
+    }
+
+    @Test
+    void shouldRunActionAgain_whenFirstRunFailed() {
+        // arrange
+        assertThrows(EmptyCartException.class, () -> idempotencyService.execute(1L, "key", "order 1", Integer.class, () -> {
+            throw new EmptyCartException("Cart is empty");
+        }));
+
+        // act
+        Integer result = idempotencyService.execute(1L, "key", "order 1", Integer.class, runs::incrementAndGet);
+
+        // assert
+        assertEquals(1, result);
+    }
+
+    @Test
+    void shouldRunActionAgain_whenKeyHasExpired() {
+        // arrange
+        idempotencyService.execute(1L, "key", "order 1", Integer.class, runs::incrementAndGet);
+        expireKeys();
+
+        // act
+        Integer result = idempotencyService.execute(1L, "key", "order 1", Integer.class, runs::incrementAndGet);
+
+        // assert
+        assertEquals(2, result);
+    }
+
+    @Test
+    void shouldDeleteExpiredKeys_whenPurged() {
+        // arrange
+        idempotencyService.execute(1L, "old", "order 1", Integer.class, runs::incrementAndGet);
+        expireKeys();
+        idempotencyService.execute(1L, "new", "order 1", Integer.class, runs::incrementAndGet);
+
+        // act
+        int purged = idempotencyService.purgeExpiredKeys();
+
+        // assert
+        assertEquals(1, purged);
+        assertEquals(1, idempotencyKeyRepository.count());
+    }
+
+    private void expireKeys() {
+        jdbcTemplate.update("UPDATE idempotency_key SET created_at = ?", LocalDateTime.now().minusDays(2));
+    }
+}
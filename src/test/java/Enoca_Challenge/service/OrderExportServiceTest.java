@@ -0,0 +1,103 @@
+package Enoca_Challenge.service;
+
+import Enoca_Challenge.dto.response.OrderResponse;
+import Enoca_Challenge.exception.custom.CustomerNotFoundException;
+import Enoca_Challenge.model.Customer;
+import Enoca_Challenge.model.Money;
+import Enoca_Challenge.model.Order;
+import Enoca_Challenge.model.OrderItem;
+import Enoca_Challenge.model.Product;
+import Enoca_Challenge.repository.CustomerRepository;
+import Enoca_Challenge.repository.OrderRepository;
+import Enoca_Challenge.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:orderExportDB")
+class OrderExportServiceTest {
+
+    private static final int ORDER_COUNT = 600;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = customerRepository.save(new Customer("export", "export@mail.com"));
+        Product first = productRepository.save(new Product("first", Money.of("1"), 10));
+        Product second = productRepository.save(new Product("second, \"special\"", Money.of("10"), 10));
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            List<OrderItem> orderItems = List.of(
+                    new OrderItem(first, first.getName(), 1, Money.of("1")),
+                    new OrderItem(second, second.getName(), 2, Money.of("20")));
+            orders.add(new Order(customer, Money.of("21"), orderItems));
+        }
+        orderRepository.saveAll(orders);
+    }
+
+    @Test
+    void shouldWriteEveryOrderAsJsonLine_whenFormatIsNdjson() throws IOException {
+        // act
+        String export = export(OrderExportService.Format.NDJSON);
+
+        // assert
+        String[] lines = export.split("\n");
+        assertEquals(ORDER_COUNT, lines.length);
+        assertTrue(export.endsWith("\n"));
+        OrderResponse first = objectMapper.readValue(lines[0], OrderResponse.class);
+        assertEquals(customer.getId(), first.customerId());
+        assertEquals(2, first.orderItems().size());
+        assertEquals("second, \"special\"", first.orderItems().get(1).productName());
+    }
+
+    @Test
+    void shouldWriteRowPerOrderItem_whenFormatIsCsv() throws IOException {
+        // act
+        String export = export(OrderExportService.Format.CSV);
+
+        // assert
+        String[] lines = export.split("\n");
+        assertEquals(1 + 2 * ORDER_COUNT, lines.length);
+        assertTrue(lines[0].startsWith("order_id,order_code,customer_id"));
+        assertTrue(lines[2].endsWith(",\"second, \"\"special\"\"\",2,20.00"), lines[2]);
+    }
+
+    @Test
+    void shouldThrowCustomerNotFoundException_whenCustomerDoesNotExist() {
+        // act & assert
+        assertThrows(CustomerNotFoundException.class,
+                () -> orderExportService.exportOrders(0L, OrderExportService.Format.NDJSON));
+    }
+
+    private String export(OrderExportService.Format format) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        orderExportService.exportOrders(customer.getId(), format).writeTo(outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,59 @@
+package Enoca_Challenge.service;
+
+import Enoca_Challenge.cache.BoundedCache;
+import Enoca_Challenge.dto.response.OrderItemResponse;
+import Enoca_Challenge.dto.response.OrderResponse;
+import Enoca_Challenge.model.Money;
+import Enoca_Challenge.service.OrderResponseCache.SerializedOrder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final OrderResponseCache orderResponseCache =
+            new OrderResponseCache(new BoundedCache<>(10, Duration.ofMinutes(1)), objectMapper);
+
+    private final OrderResponse order = new OrderResponse(1L, 2L, Money.of("10"), "ORDER-1",
+            List.of(new OrderItemResponse(3L, "product", 1, Money.of("10"))));
+
+    @Test
+    void shouldSerializeOrderOnce_whenGetIsCalledRepeatedly() throws Exception {
+        // arrange
+        AtomicInteger loads = new AtomicInteger();
+
+        // act
+        SerializedOrder first = orderResponseCache.get("ORDER-1", code -> {
+            loads.incrementAndGet();
+            return order;
+        });
+        SerializedOrder second = orderResponseCache.get("ORDER-1", code -> {
+            loads.incrementAndGet();
+            return order;
+        });
+
+        // assert
+        assertEquals(1, loads.get());
+        assertSame(first, second);
+        assertArrayEquals(objectMapper.writeValueAsBytes(order), first.body());
+    }
+
+    @Test
+    void shouldServePlacedOrderWithoutLoading_whenOrderWasPut() {
+        // arrange
+        orderResponseCache.put(order);
+
+        // act
+        SerializedOrder result = orderResponseCache.get("ORDER-1", code -> fail("Placed order must not be loaded"));
+
+        // assert
+        assertEquals(order, assertDoesNotThrow(() -> objectMapper.readValue(result.body(), OrderResponse.class)));
+    }
+}
@@ -0,0 +1,98 @@
+package Enoca_Challenge.service;
+
+import Enoca_Challenge.exception.custom.InsufficientStockException;
+import Enoca_Challenge.model.Cart;
+import Enoca_Challenge.model.CartItem;
+import Enoca_Challenge.model.Customer;
+import Enoca_Challenge.model.Money;
+import Enoca_Challenge.model.Product;
+import Enoca_Challenge.repository.CartRepository;
+import Enoca_Challenge.repository.CustomerRepository;
+import Enoca_Challenge.repository.OrderRepository;
+import Enoca_Challenge.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:orderConcurrencyDB;LOCK_TIMEOUT=10000")
+class OrderServiceConcurrencyTest {
+
+    private static final int CUSTOMER_COUNT = 2000;
+    private static final int INITIAL_STOCK = 150;
+    private static final int THREAD_COUNT = 32;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void shouldNotOversell_whenThousandsOfOrdersArePlacedConcurrently() throws Exception {
+        // arrange
+        Product product = productRepository.save(new Product("hot product", Money.of("10"), INITIAL_STOCK));
+        List<Long> customerIds = new ArrayList<>();
+        for (int i = 0; i < CUSTOMER_COUNT; i++) {
+            Customer customer = customerRepository.save(new Customer("customer " + i, "customer" + i + "@mail.com"));
+            Cart cart = new Cart();
+            cart.setCustomer(customer);
+            cart.setCartItems(new ArrayList<>(List.of(new CartItem(product, 1, Money.of("10")))));
+            cart.setTotalPrice(Money.of("10"));
+            cartRepository.save(cart);
+            customerIds.add(customer.getId());
+        }
+
+        AtomicInteger placedOrders = new AtomicInteger();
+        AtomicInteger rejectedOrders = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // act
+        for (Long customerId : customerIds) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    orderService.placeOrder(customerId);
+                    placedOrders.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    rejectedOrders.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        // assert
+        Product reloaded = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(0, reloaded.getStock());
+        assertEquals(INITIAL_STOCK, placedOrders.get());
+        assertEquals(CUSTOMER_COUNT - INITIAL_STOCK, rejectedOrders.get());
+        assertEquals(INITIAL_STOCK, orderRepository.count());
+    }
+}
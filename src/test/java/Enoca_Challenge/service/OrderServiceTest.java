@@ -1,23 +1,32 @@
 package Enoca_Challenge.service;
 
+import Enoca_Challenge.dto.request.OrderCursor;
+import Enoca_Challenge.dto.response.CursorPageResponse;
 import Enoca_Challenge.dto.response.OrderResponse;
+import Enoca_Challenge.model.Money;
 import Enoca_Challenge.exception.custom.*;
 import Enoca_Challenge.model.*;
 import Enoca_Challenge.repository.OrderRepository;
+import Enoca_Challenge.service.OrderResponseCache.SerializedOrder;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class OrderServiceTest extends BaseServiceTest{
@@ -34,6 +43,12 @@ class OrderServiceTest extends BaseServiceTest{
     @Mock
     private CustomerService customerService;
 
+    @Mock
+    private OrderResponseCache orderResponseCache;
+
+    @Spy
+    private OrderCodeGenerator orderCodeGenerator = new OrderCodeGenerator(0);
+
     @InjectMocks
     private OrderService orderService;
 
@@ -47,10 +62,10 @@ class OrderServiceTest extends BaseServiceTest{
         List<CartItem> cartItems = new ArrayList<>();
         Product product = new Product(
                 "product",
-                BigDecimal.TEN,
+                Money.of("10"),
                 10
         );
-        CartItem cartItem = new CartItem(product, 2, BigDecimal.valueOf(20));
+        CartItem cartItem = new CartItem(product, 2, Money.of("20"));
 
         cartItems.add(cartItem);
         cart.setCartItems(cartItems);
@@ -62,6 +77,9 @@ class OrderServiceTest extends BaseServiceTest{
 
         // assert
         assertNotNull(result);
+        assertTrue(result.code().startsWith("ORDER-"));
+        verify(orderCodeGenerator).next();
+        verify(orderResponseCache).put(result);
     }
 
     @Test
@@ -88,10 +106,10 @@ class OrderServiceTest extends BaseServiceTest{
         List<CartItem> cartItems = new ArrayList<>();
         Product product = new Product(
                 "product",
-                BigDecimal.TEN,
+                Money.of("10"),
                 10
         );
-        CartItem cartItem = new CartItem(product, 20, BigDecimal.valueOf(200));
+        CartItem cartItem = new CartItem(product, 20, Money.of("200"));
 
         cartItems.add(cartItem);
         cart.setCartItems(cartItems);
@@ -112,11 +130,11 @@ class OrderServiceTest extends BaseServiceTest{
         List<CartItem> cartItems = new ArrayList<>();
         Product product = new Product(
                 "product",
-                BigDecimal.TEN,
+                Money.of("10"),
                 10
         );
         product.setDeleted(true);
-        CartItem cartItem = new CartItem(product, 2, BigDecimal.valueOf(20));
+        CartItem cartItem = new CartItem(product, 2, Money.of("20"));
 
         cartItems.add(cartItem);
         cart.setCartItems(cartItems);
@@ -127,6 +145,35 @@ class OrderServiceTest extends BaseServiceTest{
         assertThrows(ProductNotFoundException.class, () -> orderService.placeOrder(customerId));
     }
 
+    @Test
+    void shouldNotSaveOrder_whenPlaceOrderAndStockRunsOutConcurrently() {
+        // arrange
+        Long customerId = 1L;
+        Cart cart = new Cart();
+        Customer customer = new Customer();
+        cart.setCustomer(customer);
+        List<CartItem> cartItems = new ArrayList<>();
+        Product product = new Product(
+                "product",
+                Money.of("10"),
+                10
+        );
+        product.setId(1L);
+        CartItem cartItem = new CartItem(product, 2, Money.of("20"));
+
+        cartItems.add(cartItem);
+        cart.setCartItems(cartItems);
+
+        when(cartService.findByCustomerId(customerId)).thenReturn(cart);
+        doThrow(new InsufficientStockException("Not enough stock for product with id 1"))
+                .when(productService).reduceProductStock(Map.of(1L, 2));
+
+        // act and assert
+        assertThrows(InsufficientStockException.class, () -> orderService.placeOrder(customerId));
+        verify(orderRepository, never()).save(any());
+        verify(cartService, never()).emptyCart(customerId);
+    }
+
     @Test
     void shouldReturnOrderResponse_whenGetOrderForCode() {
         // arrange
@@ -144,6 +191,38 @@ class OrderServiceTest extends BaseServiceTest{
         assertNotNull(result);
     }
 
+    @Test
+    void shouldReturnETagWithoutLoadingOrder_whenGetOrderETag() {
+        // act
+        Optional<String> result = orderService.getOrderETag("ORDER-1");
+
+        // assert
+        assertEquals(Optional.of("order-ORDER-1"), result);
+        verifyNoInteractions(orderRepository, orderResponseCache);
+    }
+
+    @Test
+    void shouldLoadOrderOnlyOnCacheMiss_whenGetSerializedOrder() {
+        // arrange
+        String orderCode = "orderCode";
+        Order order = new Order();
+        order.setCustomer(new Customer());
+        order.setOrderItems(new ArrayList<>());
+        SerializedOrder serializedOrder = new SerializedOrder(new byte[0]);
+        when(orderRepository.findByCode(orderCode)).thenReturn(Optional.of(order));
+        when(orderResponseCache.get(eq(orderCode), any())).thenAnswer(invocation -> {
+            invocation.<Function<String, OrderResponse>>getArgument(1).apply(orderCode);
+            return serializedOrder;
+        });
+
+        // act
+        SerializedOrder result = orderService.getSerializedOrder(orderCode);
+
+        // assert
+        assertSame(serializedOrder, result);
+        verify(orderRepository).findByCode(orderCode);
+    }
+
     @Test
     void shouldThrowOrderNotFoundException_whenGetOrderForCodeAndOrderNotFound() {
         // arrange
@@ -163,10 +242,10 @@ class OrderServiceTest extends BaseServiceTest{
                 new Product(),
                 "product",
                 2,
-                BigDecimal.valueOf(20)
+                Money.of("20")
         );
-        Order order1 = new Order(new Customer(), BigDecimal.valueOf(10), List.of(orderItem));
-        Order order2 = new Order(new Customer(), BigDecimal.valueOf(20), List.of(orderItem));
+        Order order1 = new Order(new Customer(), Money.of("10"), List.of(orderItem));
+        Order order2 = new Order(new Customer(), Money.of("20"), List.of(orderItem));
         Page<Order> ordersPage = new PageImpl<>(List.of(order1, order2), pageable, 2);
 
         when(orderRepository.findAllByCustomerId(customerId, pageable)).thenReturn(ordersPage);
@@ -194,4 +273,55 @@ class OrderServiceTest extends BaseServiceTest{
         verify(customerService).validateCustomerExists(customerId);
         verifyNoInteractions(orderRepository);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldReturnFirstSliceWithNextCursor_whenGetOrdersByCursorAndMoreOrdersExist() {
+        // arrange
+        Long customerId = 1L;
+        Order order1 = new Order(new Customer(), Money.of("10"), List.of());
+        order1.setId(3L);
+        Order order2 = new Order(new Customer(), Money.of("20"), List.of());
+        order2.setId(2L);
+        Order order3 = new Order(new Customer(), Money.of("30"), List.of());
+        order3.setId(1L);
+
+        when(orderRepository.findByCustomerIdOrderByCreatedAtDescIdDesc(customerId, PageRequest.ofSize(3)))
+                .thenReturn(List.of(order1, order2, order3));
+
+        // act
+        CursorPageResponse<OrderResponse> result = orderService.getOrdersForCustomerByCursor(customerId, null, 2);
+
+        // assert
+        assertEquals(2, result.content().size());
+        assertEquals(List.of(3L, 2L), result.content().stream().map(OrderResponse::id).toList());
+        assertNotNull(result.nextCursor());
+        verify(customerService).validateCustomerExists(customerId);
+        verify(orderRepository, never()).findAllByCustomerId(any(), any());
+    }
+
+    @Test
+    void shouldReturnLastSliceWithoutNextCursor_whenGetOrdersByCursorAndNoMoreOrdersExist() {
+        // arrange
+        Long customerId = 1L;
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        String cursor = new OrderCursor(createdAt, 5L).encode();
+        Order order = new Order(new Customer(), Money.of("10"), List.of());
+
+        when(orderRepository.findByCustomerIdBefore(customerId, createdAt, 5L, PageRequest.ofSize(21)))
+                .thenReturn(List.of(order));
+
+        // act
+        CursorPageResponse<OrderResponse> result = orderService.getOrdersForCustomerByCursor(customerId, cursor, 20);
+
+        // assert
+        assertEquals(1, result.content().size());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void shouldThrowInvalidCursorException_whenGetOrdersByCursorAndCursorIsMalformed() {
+        // act & assert
+        assertThrows(InvalidCursorException.class, () -> orderService.getOrdersForCustomerByCursor(1L, "not-a-cursor", 20));
+        verifyNoInteractions(orderRepository);
+    }
+}
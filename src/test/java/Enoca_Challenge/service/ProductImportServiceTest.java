@@ -0,0 +1,118 @@
+package Enoca_Challenge.service;
+
+import Enoca_Challenge.dto.response.ProductImportResponse;
+import Enoca_Challenge.exception.custom.InvalidImportException;
+import Enoca_Challenge.model.Money;
+import Enoca_Challenge.model.Product;
+import Enoca_Challenge.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:productImportDB",
+        "enoca.products.import.batch-size=2",
+        "enoca.products.import.max-reported-errors=2"
+})
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void shouldImportValidRowsAndReportInvalidOnes_whenNdjsonIsImported() throws IOException {
+        // arrange
+        InputStream input = stream("""
+                {"name": "first", "price": 10, "stock": 5}
+                {"name": "second", "price": 0, "stock": 5}
+                not json
+
+                {"name": "third", "price": 20, "stock": 1}
+                {"name": "fourth", "price": 30, "stock": 2}
+                {"price": 30}
+                """);
+
+        // act
+        ProductImportResponse result = productImportService.importProducts(input, ProductImportService.Format.NDJSON);
+
+        // assert
+        assertEquals(3, result.importedRows());
+        assertEquals(3, result.failedRows());
+        assertEquals(2, result.errors().size());
+        assertEquals(2, result.errors().get(0).row());
+        assertEquals("price: Price must be greater than 0", result.errors().get(0).message());
+        assertEquals(3, result.errors().get(1).row());
+        assertEquals(List.of("first", "third", "fourth"), productRepository.findAll().stream().map(Product::getName).toList());
+    }
+
+    @Test
+    void shouldReportRow_whenNdjsonRowIsNull() throws IOException {
+        // arrange
+        InputStream input = stream("""
+                null
+                {"name": "first", "price": 10, "stock": 5}
+                """);
+
+        // act
+        ProductImportResponse result = productImportService.importProducts(input, ProductImportService.Format.NDJSON);
+
+        // assert
+        assertEquals(1, result.importedRows());
+        assertEquals(1, result.failedRows());
+        assertEquals(1, result.errors().get(0).row());
+        assertEquals("Row could not be parsed: expected a product object", result.errors().get(0).message());
+    }
+
+    @Test
+    void shouldImportQuotedValues_whenCsvColumnsAreReordered() throws IOException {
+        // arrange
+        InputStream input = stream("""
+                stock,name,price
+                5,"product, with ""quotes\""",9.99
+                1,cheap,abc
+                """);
+
+        // act
+        ProductImportResponse result = productImportService.importProducts(input, ProductImportService.Format.CSV);
+
+        // assert
+        assertEquals(1, result.importedRows());
+        assertEquals(1, result.failedRows());
+        assertEquals(3, result.errors().get(0).row());
+        Product product = productRepository.findAll().get(0);
+        assertEquals("product, with \"quotes\"", product.getName());
+        assertEquals(Money.of("9.99"), product.getPrice());
+        assertEquals(5, product.getStock());
+    }
+
+    @Test
+    void shouldThrowInvalidImportException_whenCsvHeaderMissesColumn() {
+        // arrange
+        InputStream input = stream("name,price\nproduct,10\n");
+
+        // act & assert
+        assertThrows(InvalidImportException.class,
+                () -> productImportService.importProducts(input, ProductImportService.Format.CSV));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,19 +1,46 @@
 package Enoca_Challenge.service;
 
+import Enoca_Challenge.cache.BoundedCache;
+import Enoca_Challenge.cache.EntityCacheEvictor;
+import Enoca_Challenge.dto.request.ProductCursor;
+import Enoca_Challenge.dto.request.ProductFilter;
 import Enoca_Challenge.dto.request.ProductRequest;
+import Enoca_Challenge.dto.request.ProductSort;
+import Enoca_Challenge.dto.request.StockAdjustmentRequest.StockDelta;
+import Enoca_Challenge.dto.response.CursorPageResponse;
+import Enoca_Challenge.dto.response.ProductBatchResponse;
 import Enoca_Challenge.dto.response.ProductResponse;
+import Enoca_Challenge.dto.response.ProductStockResponse;
+import Enoca_Challenge.dto.response.StockAdjustmentResponse;
+import Enoca_Challenge.exception.custom.InsufficientStockException;
+import Enoca_Challenge.exception.custom.InvalidCursorException;
+import Enoca_Challenge.exception.custom.InvalidStockAdjustmentException;
 import Enoca_Challenge.exception.custom.ProductNotFoundException;
+import Enoca_Challenge.model.Money;
 import Enoca_Challenge.model.Product;
 import Enoca_Challenge.repository.ProductRepository;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ProductServiceTest extends BaseServiceTest {
@@ -24,6 +51,12 @@ public class ProductServiceTest extends BaseServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Spy
+    private BoundedCache<Long, ProductResponse> productCache = new BoundedCache<>(100, Duration.ofMinutes(1));
+
+    @Mock
+    private EntityCacheEvictor entityCacheEvictor;
+
     @Test
     void shouldReturnProductResponse_WhenCreateProduct() {
         // arrange
@@ -49,7 +82,7 @@ public class ProductServiceTest extends BaseServiceTest {
         Long id = 1L;
         Product product = new Product(
                 "product name",
-                BigDecimal.TEN,
+                Money.of("10"),
                 10
         );
         when(productRepository.findByIdAndIsDeletedFalse(id)).thenReturn(Optional.of(product));
@@ -121,7 +154,7 @@ public class ProductServiceTest extends BaseServiceTest {
         Long id = 1L;
         Product product = new Product(
                 "product name",
-                BigDecimal.TEN,
+                Money.of("10"),
                 10
         );
 
@@ -151,18 +184,219 @@ public class ProductServiceTest extends BaseServiceTest {
     @Test
     void shouldReduceStock_WhenReduceStock() {
         // arrange
+        Map<Long, Integer> quantities = Map.of(1L, 5, 2L, 3);
+        when(productRepository.decreaseStocks(anyMap())).thenReturn(new int[]{1, 1});
+
+        // act
+        productService.reduceProductStock(quantities);
+
+        // assert
+        verify(productRepository).decreaseStocks(quantities);
+    }
+
+    @Test
+    void shouldThrowInsufficientStockException_WhenReduceStockAndStockIsNotEnough() {
+        // arrange
+        Map<Long, Integer> quantities = Map.of(1L, 5, 2L, 3);
+        when(productRepository.decreaseStocks(anyMap())).thenReturn(new int[]{1, 0});
+
+        // act
+        Exception exception = assertThrows(InsufficientStockException.class, () -> productService.reduceProductStock(quantities));
+
+        // assert
+        assertEquals("Not enough stock for product with id 2", exception.getMessage());
+    }
+
+    @Test
+    void shouldInvalidateCachedProductAgain_WhenStockReductionCommits() {
+        // arrange
+        Map<Long, Integer> quantities = Map.of(1L, 5);
+        when(productRepository.decreaseStocks(anyMap())).thenReturn(new int[]{1});
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            productService.reduceProductStock(quantities);
+            // A read before the commit still sees the old row
+            productCache.put(1L, new ProductResponse(1L, "product name", Money.of("10"), 10));
+
+            // act
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // assert
+        assertNull(productCache.get(1L));
+    }
+
+    @Test
+    void shouldReadProductFromCache_WhenGetProductIsCalledTwice() {
+        // arrange
+        Long id = 1L;
         Product product = new Product(
                 "product name",
-                BigDecimal.TEN,
+                Money.of("10"),
                 10
         );
+        product.setId(id);
+        when(productRepository.findByIdAndIsDeletedFalse(id)).thenReturn(Optional.of(product));
+
+        // act
+        productService.getProduct(id);
+        ProductResponse result = productService.getProduct(id);
 
+        // assert
+        assertEquals(product.getName(), result.name());
+        verify(productRepository, times(1)).findByIdAndIsDeletedFalse(id);
+        assertEquals(1, productCache.stats().hits());
+    }
+
+    @Test
+    void shouldInvalidateCachedProduct_WhenUpdateProduct() {
+        // arrange
+        Long id = 1L;
+        Product product = new Product(
+                "product name",
+                Money.of("10"),
+                10
+        );
+        product.setId(id);
+        ProductRequest productRequest = new ProductRequest(
+                "new name",
+                BigDecimal.TEN,
+                10
+        );
+        when(productRepository.findByIdAndIsDeletedFalse(id)).thenReturn(Optional.of(product));
         when(productRepository.save(any(Product.class))).thenReturn(product);
+        productService.getProduct(id);
 
         // act
-        productService.reduceProductStock(product, 5);
+        productService.updateProduct(id, productRequest);
+        ProductResponse result = productService.getProduct(id);
 
         // assert
-        assertEquals(5, product.getStock());
+        assertEquals("new name", result.name());
+    }
+
+    @Test
+    void shouldReturnETagFromProductVersion_WhenGetProductETag() {
+        // arrange
+        when(productRepository.findVersionById(1L)).thenReturn(Optional.of(3L));
+        when(productRepository.findVersionById(2L)).thenReturn(Optional.empty());
+
+        // act & assert
+        assertEquals(Optional.of("product-3"), productService.getProductETag(1L));
+        assertEquals(Optional.empty(), productService.getProductETag(2L));
+        verify(productRepository, never()).findByIdAndIsDeletedFalse(any());
+    }
+
+    @Test
+    void shouldReturnNextCursor_whenListProductsHasMoreProducts() {
+        // arrange
+        ProductFilter filter = new ProductFilter(null, null, true);
+        ProductResponse first = new ProductResponse(1L, "first", Money.of("1"), 1);
+        ProductResponse second = new ProductResponse(2L, "second", Money.of("10"), 1);
+        ProductResponse third = new ProductResponse(3L, "third", Money.of("10"), 1);
+        when(productRepository.findProducts(filter, ProductSort.PRICE_ASC, null, 3)).thenReturn(List.of(first, second, third));
+
+        // act
+        CursorPageResponse<ProductResponse> result = productService.listProducts(filter, ProductSort.PRICE_ASC, null, 2);
+
+        // assert
+        assertEquals(List.of(first, second), result.content());
+        assertEquals(new ProductCursor(ProductSort.PRICE_ASC, "10.00", 2L),
+                ProductCursor.decode(result.nextCursor(), ProductSort.PRICE_ASC));
+    }
+
+    @Test
+    void shouldThrowInvalidCursorException_whenCursorWasListedWithAnotherSort() {
+        // arrange
+        String cursor = new ProductCursor(ProductSort.PRICE_ASC, "10", 2L).encode();
+        ProductFilter filter = new ProductFilter(null, null, false);
+
+        // act & assert
+        assertThrows(InvalidCursorException.class,
+                () -> productService.listProducts(filter, ProductSort.NAME_ASC, cursor, 2));
+        verify(productRepository, times(0)).findProducts(eq(filter), any(), any(), any(Integer.class));
+    }
+
+    @Test
+    void shouldThrowInvalidCursorException_whenPriceCursorHasNoValidPrice() {
+        // arrange
+        String emptyPrice = new ProductCursor(ProductSort.PRICE_ASC, null, 2L).encode();
+        String invalidPrice = new ProductCursor(ProductSort.PRICE_DESC, "ten", 2L).encode();
+        ProductFilter filter = new ProductFilter(null, null, false);
+
+        // act & assert
+        assertThrows(InvalidCursorException.class,
+                () -> productService.listProducts(filter, ProductSort.PRICE_ASC, emptyPrice, 2));
+        assertThrows(InvalidCursorException.class,
+                () -> productService.listProducts(filter, ProductSort.PRICE_DESC, invalidPrice, 2));
+        verify(productRepository, times(0)).findProducts(eq(filter), any(), any(), any(Integer.class));
+    }
+
+    @Test
+    void shouldReportMissingIds_whenGetProductsAndSomeProductsDoNotExist() {
+        // arrange
+        ProductResponse cached = new ProductResponse(1L, "cached", Money.of("1"), 1);
+        ProductResponse loaded = new ProductResponse(2L, "loaded", Money.of("10"), 1);
+        productCache.put(1L, cached);
+        when(productRepository.findResponsesByIdIn(List.of(3L, 2L))).thenReturn(List.of(loaded));
+
+        // act
+        ProductBatchResponse result = productService.getProducts(List.of(3L, 1L, 2L, 1L));
+
+        // assert
+        assertEquals(List.of(cached, loaded), result.products());
+        assertEquals(List.of(3L), result.missingIds());
+        assertEquals(loaded, productCache.get(2L));
+    }
+
+    @Test
+    void shouldQueryInChunks_whenGetProductsWithManyIds() {
+        // arrange
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 1200; id++) {
+            ids.add(id);
+        }
+        when(productRepository.findResponsesByIdIn(anyList())).thenReturn(List.of());
+
+        // act
+        ProductBatchResponse result = productService.getProducts(ids);
+
+        // assert
+        assertEquals(1200, result.missingIds().size());
+        verify(productRepository, times(3)).findResponsesByIdIn(anyList());
+    }
+
+    @Test
+    void shouldReturnNewStocksAndRejectedIds_whenAdjustStocks() {
+        // arrange
+        productCache.put(1L, new ProductResponse(1L, "cached", Money.of("1"), 5));
+        List<StockDelta> adjustments = List.of(
+                new StockDelta(1L, 5), new StockDelta(2L, -10), new StockDelta(3L, 1), new StockDelta(1L, 2));
+        when(productRepository.adjustStocks(Map.of(1L, 7, 2L, -10, 3L, 1))).thenReturn(new int[]{1, 0, 0});
+        when(productRepository.findStocksByIdIn(List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(new ProductStockResponse(1L, 12), new ProductStockResponse(2L, 4)));
+
+        // act
+        StockAdjustmentResponse result = productService.adjustStocks(adjustments);
+
+        // assert
+        assertEquals(List.of(new ProductStockResponse(1L, 12)), result.stocks());
+        assertEquals(List.of(2L), result.insufficientStockIds());
+        assertEquals(List.of(3L), result.missingIds());
+        assertNull(productCache.get(1L));
+        verify(productRepository, times(0)).findByIdAndIsDeletedFalse(any());
+    }
+
+    @Test
+    void shouldThrowInvalidStockAdjustmentException_whenDeltasOfProductOverflow() {
+        // arrange
+        List<StockDelta> adjustments = List.of(
+                new StockDelta(1L, Integer.MAX_VALUE), new StockDelta(2L, 1), new StockDelta(1L, 1));
+
+        // act & assert
+        assertThrows(InvalidStockAdjustmentException.class, () -> productService.adjustStocks(adjustments));
+        verify(productRepository, times(0)).adjustStocks(anyMap());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,108 @@
+package Enoca_Challenge.service;
+
+import Enoca_Challenge.exception.custom.ProductNotFoundException;
+import Enoca_Challenge.model.Customer;
+import Enoca_Challenge.model.Money;
+import Enoca_Challenge.model.Product;
+import Enoca_Challenge.repository.CustomerRepository;
+import Enoca_Challenge.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:secondLevelCacheDB")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void shouldNotQueryDatabase_whenCustomerIsValidatedAgain() {
+        // arrange
+        Customer customer = customerRepository.save(new Customer("customer", "customer@mail.com"));
+        statistics.clear();
+
+        // act
+        customerService.validateCustomerExists(customer.getId());
+        customerService.validateCustomerExists(customer.getId());
+
+        // assert
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getDomainDataRegionStatistics(Customer.CACHE_REGION).getHitCount());
+    }
+
+    @Test
+    void shouldServeProductFromQueryCache_whenProductIsReadAgain() {
+        // arrange
+        Product product = productRepository.save(new Product("product", Money.of("10"), 10));
+        productService.getProductById(product.getId());
+        statistics.clear();
+
+        // act
+        Product cached = productService.getProductById(product.getId());
+
+        // assert
+        assertEquals("product", cached.getName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void shouldReadNewStock_whenStockIsReducedWithJdbc() {
+        // arrange
+        Product product = productRepository.save(new Product("product", Money.of("10"), 10));
+        productService.getProductById(product.getId());
+
+        // act
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> productService.reduceProductStock(Map.of(product.getId(), 3)));
+
+        // assert
+        assertEquals(7, productService.getProductById(product.getId()).getStock());
+    }
+
+    @Test
+    void shouldNotFindProduct_whenCachedProductIsDeleted() {
+        // arrange
+        Product product = productRepository.save(new Product("product", Money.of("10"), 10));
+        productService.getProductById(product.getId());
+
+        // act
+        productService.deleteProduct(product.getId());
+
+        // assert
+        assertThrows(ProductNotFoundException.class, () -> productService.getProductById(product.getId()));
+    }
+}
@@ -0,0 +1,195 @@
+package Enoca_Challenge.service;
+
+import Enoca_Challenge.dto.request.CartItemRequest;
+import Enoca_Challenge.dto.response.CartResponse;
+import Enoca_Challenge.dto.response.OrderResponse;
+import Enoca_Challenge.model.Cart;
+import Enoca_Challenge.model.CartItem;
+import Enoca_Challenge.model.Customer;
+import Enoca_Challenge.model.Money;
+import Enoca_Challenge.model.Product;
+import Enoca_Challenge.repository.CartRepository;
+import Enoca_Challenge.repository.CustomerRepository;
+import Enoca_Challenge.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:writeBehindCartDB",
+        "enoca.cart.write-behind.enabled=true",
+        "enoca.cart.write-behind.flush-interval=1h",
+        "enoca.cart.write-behind.max-carts=2",
+        "enoca.cart.write-behind.idle-timeout=100ms"
+})
+class WriteBehindCartServiceTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private WriteBehindCartService writeBehindCartService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = productRepository.save(new Product("product", Money.of("10"), 100));
+    }
+
+    @Test
+    void shouldWriteCoalescedChanges_whenDirtyCartsAreFlushed() {
+        // arrange
+        Long customerId = newCustomer("flushed");
+
+        // act
+        for (int i = 0; i < 3; i++) {
+            cartService.addProductToCart(new CartItemRequest(customerId, product.getId()));
+        }
+        CartResponse response = cartService.reduceProductQuantity(new CartItemRequest(customerId, product.getId()));
+        Optional<Cart> cartBeforeFlush = cartRepository.findByCustomerId(customerId);
+        writeBehindCartService.flushDirtyCarts();
+
+        // assert
+        assertEquals(2, response.cartItems().get(0).quantity());
+        assertEquals(Money.of("20"), response.totalPrice());
+        assertTrue(cartBeforeFlush.isEmpty());
+        Cart cart = cartRepository.findByCustomerId(customerId).orElseThrow();
+        assertEquals(2, cart.getCartItem(product.getId()).getQuantity());
+        assertEquals(Money.of("20"), cart.getTotalPrice());
+    }
+
+    @Test
+    void shouldPlaceOrderWithBufferedChanges_whenCartIsNotFlushedYet() {
+        // arrange
+        Long customerId = newCustomer("order");
+        cartService.addProductToCart(new CartItemRequest(customerId, product.getId()));
+        cartService.addProductToCart(new CartItemRequest(customerId, product.getId()));
+
+        // act
+        OrderResponse order = orderService.placeOrder(customerId);
+
+        // assert
+        assertEquals(2, order.orderItems().get(0).quantity());
+        assertEquals(Money.of("20"), order.totalPrice());
+        assertTrue(cartRepository.findByCustomerId(customerId).orElseThrow().getCartItems().isEmpty());
+        assertTrue(cartService.getCart(customerId).cartItems().isEmpty());
+        assertEquals(98, productRepository.findById(product.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void shouldKeepBufferedChanges_whenOrderIsRolledBack() {
+        // arrange
+        Long customerId = newCustomer("rollback");
+        cartService.addProductToCart(new CartItemRequest(customerId, product.getId()));
+        product.setStock(0);
+        productRepository.save(product);
+
+        // act
+        assertThrows(RuntimeException.class, () -> orderService.placeOrder(customerId));
+        CartResponse response = cartService.getCart(customerId);
+        writeBehindCartService.flushDirtyCarts();
+
+        // assert
+        assertEquals(1, response.cartItems().size());
+        assertEquals(1, cartRepository.findByCustomerId(customerId).orElseThrow().getCartItems().size());
+    }
+
+    @Test
+    void shouldWriteLeastRecentlyUsedCartOnFlusher_whenBufferIsFull() throws InterruptedException {
+        // arrange
+        List<Long> customerIds = List.of(newCustomer("first"), newCustomer("second"), newCustomer("third"));
+
+        // act
+        for (Long customerId : customerIds) {
+            cartService.addProductToCart(new CartItemRequest(customerId, product.getId()));
+        }
+        Optional<Cart> firstCart = cartRepository.findByCustomerId(customerIds.get(0));
+        for (int i = 0; i < 100 && firstCart.isEmpty(); i++) {
+            Thread.sleep(50);
+            firstCart = cartRepository.findByCustomerId(customerIds.get(0));
+        }
+
+        // assert
+        assertEquals(1, firstCart.orElseThrow().getCartItems().size());
+        assertTrue(cartRepository.findByCustomerId(customerIds.get(1)).isEmpty());
+        assertTrue(cartRepository.findByCustomerId(customerIds.get(2)).isEmpty());
+    }
+
+    @Test
+    void shouldWriteAndEvictIdleCarts() throws InterruptedException {
+        // arrange
+        Long customerId = newCustomer("idle");
+        cartService.addProductToCart(new CartItemRequest(customerId, product.getId()));
+        Thread.sleep(200);
+
+        // act
+        writeBehindCartService.evictIdleCarts();
+        cartService.addProductToCart(new CartItemRequest(customerId, product.getId()));
+        writeBehindCartService.flushDirtyCarts();
+
+        // assert
+        CartItem cartItem = cartRepository.findByCustomerId(customerId).orElseThrow().getCartItem(product.getId());
+        assertEquals(2, cartItem.getQuantity());
+    }
+
+    @Test
+    void shouldDropBufferedChanges_whenCartIsChangedOutsideTheBuffer() {
+        // arrange
+        Long customerId = newCustomer("conflict");
+        cartService.addProductToCart(new CartItemRequest(customerId, product.getId()));
+        writeBehindCartService.flushDirtyCarts();
+        Cart cart = cartRepository.findByCustomerId(customerId).orElseThrow();
+        cart.setTotalPrice(Money.of("1"));
+        cartRepository.save(cart);
+
+        // act
+        cartService.addProductToCart(new CartItemRequest(customerId, product.getId()));
+        writeBehindCartService.flushDirtyCarts();
+
+        // assert
+        Cart storedCart = cartRepository.findByCustomerId(customerId).orElseThrow();
+        assertEquals(Money.of("1"), storedCart.getTotalPrice());
+        assertEquals(1, storedCart.getCartItem(product.getId()).getQuantity());
+        assertEquals(1, cartService.getCart(customerId).cartItems().get(0).quantity());
+    }
+
+    @Test
+    void shouldChangeETag_whenBufferedCartChanges() {
+        // arrange
+        Long customerId = newCustomer("etag");
+        cartService.addProductToCart(new CartItemRequest(customerId, product.getId()));
+
+        // act
+        String eTag = cartService.getCartETag(customerId).orElseThrow();
+        String sameETag = cartService.getCartETag(customerId).orElseThrow();
+        cartService.addProductToCart(new CartItemRequest(customerId, product.getId()));
+        String changedETag = cartService.getCartETag(customerId).orElseThrow();
+
+        // assert
+        assertEquals(eTag, sameETag);
+        assertNotEquals(eTag, changedETag);
+    }
+
+    private Long newCustomer(String name) {
+        return customerRepository.save(new Customer(name, name + "@mail.com")).getId();
+    }
+}